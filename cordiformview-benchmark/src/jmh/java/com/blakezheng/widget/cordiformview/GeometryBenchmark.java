@@ -0,0 +1,71 @@
+/*
+ * Copyright 2019 Blake Zheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blakezheng.widget.cordiformview;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What {@code CordiformView.doMath()} computes before building paths, over a spread of view sizes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class GeometryBenchmark {
+    private HeartMetrics.Key[] keys;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        keys = new HeartMetrics.Key[256];
+        for(int i = 0; i < keys.length; i++){
+            int width = 48 + i * 8;
+            int height = 48 + ((i * 37) % keys.length) * 8;
+            keys[i] = new HeartMetrics.Key().set(width, height, 8, 8, 8, 8,
+                    i % 40, i % 3 == 0 ? 12 : 0, 2, 4, i % 2 == 0 ? 36 : 0, 6);
+        }
+    }
+
+    @Benchmark
+    public HeartMetrics computeMetrics() {
+        HeartMetrics.Key key = keys[next];
+        next = (next + 1) & (keys.length - 1);
+        return new HeartMetrics(key);
+    }
+
+    @Benchmark
+    public HeartTouchMap buildTouchMap() {
+        HeartMetrics.Key key = keys[next];
+        next = (next + 1) & (keys.length - 1);
+        return new HeartTouchMap(new HeartMetrics(key));
+    }
+
+    @Benchmark
+    public void hashKey(Blackhole blackhole) {
+        HeartMetrics.Key key = keys[next];
+        next = (next + 1) & (keys.length - 1);
+        blackhole.consume(key.hashCode());
+        blackhole.consume(key.equals(keys[next]));
+    }
+}
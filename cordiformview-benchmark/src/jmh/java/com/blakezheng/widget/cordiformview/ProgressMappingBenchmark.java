@@ -0,0 +1,73 @@
+/*
+ * Copyright 2019 Blake Zheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blakezheng.widget.cordiformview;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping of progress onto the outline, done for every segment drawn and every point of the touch map,
+ * and derivation of the background colors, done whenever a color is set.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ProgressMappingBenchmark {
+    private HeartMetrics metrics;
+    private final float[] point = new float[2];
+    private float fraction;
+    private int color = 0xff2076ff;
+
+    @Setup
+    public void setUp() {
+        metrics = new HeartMetrics(new HeartMetrics.Key().set(600, 600, 0, 0, 0, 0, 30, 0, 0, 0, 0, 0));
+    }
+
+    @Benchmark
+    public float outlineDistance() {
+        return metrics.outlineDistance(nextFraction());
+    }
+
+    @Benchmark
+    public void outlinePoint(Blackhole blackhole) {
+        HeartTouchMap.outlinePoint(metrics, nextFraction(), point);
+        blackhole.consume(point[0]);
+        blackhole.consume(point[1]);
+    }
+
+    @Benchmark
+    public int darkColor() {
+        color += 0x010203;
+        return HeartColors.parseToDarkColor(color);
+    }
+
+    //walks the whole outline, all parts are mapped equally often
+    private float nextFraction() {
+        fraction += 0.0037f;
+        if(fraction > 1){
+            fraction = 0;
+        }
+        return fraction;
+    }
+}
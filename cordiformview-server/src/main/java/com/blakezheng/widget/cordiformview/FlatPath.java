@@ -0,0 +1,100 @@
+/*
+ * Copyright 2019 Blake Zheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blakezheng.widget.cordiformview;
+
+import java.awt.Shape;
+import java.awt.geom.PathIterator;
+import java.util.Arrays;
+
+/**
+ * A path flattened to a polyline, measured like {@code android.graphics.PathMeasure} measures
+ * the first contour. Only the first contour is kept, text paths have no more.
+ */
+final class FlatPath {
+    //far below a pixel, glyphs placed along the polyline don't visibly kink
+    private final static double FLATNESS = 0.05;
+
+    private float[] xs = new float[16];
+    private float[] ys = new float[16];
+    //distance of each point from the first one
+    private float[] distances = new float[16];
+    private int count;
+
+    FlatPath(Shape path) {
+        float[] coords = new float[6];
+        for(PathIterator it = path.getPathIterator(null, FLATNESS); !it.isDone(); it.next()){
+            int type = it.currentSegment(coords);
+            if(type == PathIterator.SEG_MOVETO){
+                if(count > 0){
+                    break;
+                }
+                add(coords[0], coords[1]);
+            }else if(type == PathIterator.SEG_LINETO){
+                add(coords[0], coords[1]);
+            }
+        }
+    }
+
+    private void add(float x, float y) {
+        if(count == xs.length){
+            xs = Arrays.copyOf(xs, 2 * count);
+            ys = Arrays.copyOf(ys, 2 * count);
+            distances = Arrays.copyOf(distances, 2 * count);
+        }
+        xs[count] = x;
+        ys[count] = y;
+        distances[count] = count == 0 ? 0 : distances[count - 1] + (float) Math.hypot(x - xs[count - 1], y - ys[count - 1]);
+        count++;
+    }
+
+    float getLength() {
+        return count == 0 ? 0 : distances[count - 1];
+    }
+
+    /**
+     * Position and unit tangent at a distance, clamped to the path.
+     *
+     * @return false if the path has no length, like {@code PathMeasure#getPosTan}
+     */
+    boolean getPosTan(float distance, float[] pos, float[] tan) {
+        if(count < 2){
+            return false;
+        }
+        distance = Math.max(0, Math.min(distance, getLength()));
+        int i = Arrays.binarySearch(distances, 1, count, distance);
+        //the segment ending at or after the distance
+        int end = i >= 0 ? i : Math.min(-i - 1, count - 1);
+        //zero length segments of coinciding points have no direction
+        while(end > 1 && distances[end] == distances[end - 1]){
+            end--;
+        }
+        int start = end - 1;
+        float length = distances[end] - distances[start];
+        float dx = xs[end] - xs[start];
+        float dy = ys[end] - ys[start];
+        float ratio = length > 0 ? (distance - distances[start]) / length : 0;
+        pos[0] = xs[start] + dx * ratio;
+        pos[1] = ys[start] + dy * ratio;
+        if(length > 0){
+            tan[0] = dx / length;
+            tan[1] = dy / length;
+        }else{
+            tan[0] = 1;
+            tan[1] = 0;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2019 Blake Zheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blakezheng.widget.cordiformview;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Renders many hearts in parallel and hands each image to an {@link Output} as soon as it is done,
+ * so neither the specs nor the images of a batch have to fit into memory at once. Specs are taken from
+ * an iterator only when a task is free, at most {@code maxPending} images are rendered or waiting
+ * to be written at any time.
+ */
+public final class HeartBatch {
+    private final HeartRenderer renderer;
+    private final Executor executor;
+    private final int maxPending;
+
+    /**
+     * Receives the images of a batch, in the order they are done.
+     */
+    public interface Output {
+
+        /**
+         * Called on the threads of the executor, possibly at the same time.
+         *
+         * @param index of the spec in the iterator
+         */
+        void write(int index, byte[] image) throws IOException;
+    }
+
+    /**
+     * A batch keeping two images per available core pending, enough to keep all cores busy
+     * while images are written.
+     */
+    public HeartBatch(HeartRenderer renderer, Executor executor) {
+        this(renderer, executor, 2 * Runtime.getRuntime().availableProcessors());
+    }
+
+    public HeartBatch(HeartRenderer renderer, Executor executor, int maxPending) {
+        if(maxPending <= 0){
+            throw new IllegalArgumentException("maxPending must be positive: " + maxPending);
+        }
+        this.renderer = renderer;
+        this.executor = executor;
+        this.maxPending = maxPending;
+    }
+
+    /**
+     * Render all specs on the executor. Blocks until all images are written, so don't call it
+     * from a thread of that executor. After the first failure no more specs are taken.
+     *
+     * @return number of images written
+     * @throws IOException the first exception thrown by the renderer or the output
+     * @throws RuntimeException the first exception thrown by the renderer or the output
+     * @throws Error the first error thrown by the renderer or the output, e.g. when an image runs out of memory
+     */
+    public int render(Iterator<HeartSpec> specs, final Output output) throws IOException, InterruptedException {
+        final Semaphore pending = new Semaphore(maxPending);
+        final Throwable[] failure = new Throwable[1];
+        final int[] written = new int[1];
+        int index = 0;
+        try {
+            while(specs.hasNext() && firstFailure(failure) == null){
+                final HeartSpec spec = specs.next();
+                final int specIndex = index++;
+                pending.acquire();
+                Runnable task = new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            ByteArrayOutputStream image = new ByteArrayOutputStream();
+                            renderer.render(spec, image);
+                            output.write(specIndex, image.toByteArray());
+                            synchronized (failure) {
+                                written[0]++;
+                            }
+                        } catch (Throwable e) {
+                            //errors too, the batch fails instead of returning a short count
+                            synchronized (failure) {
+                                if(failure[0] == null){
+                                    failure[0] = e;
+                                }
+                            }
+                        } finally {
+                            pending.release();
+                        }
+                    }
+                };
+                try {
+                    executor.execute(task);
+                } catch (RuntimeException e) {
+                    //a rejected task never gives its permit back
+                    pending.release();
+                    throw e;
+                }
+            }
+        } finally {
+            //all permits are back once every task is done
+            pending.acquireUninterruptibly(maxPending);
+        }
+
+        synchronized (failure) {
+            if(failure[0] instanceof Error){
+                throw (Error) failure[0];
+            }
+            if(failure[0] instanceof IOException){
+                throw (IOException) failure[0];
+            }
+            if(failure[0] != null){
+                throw (RuntimeException) failure[0];
+            }
+            return written[0];
+        }
+    }
+
+    private static Throwable firstFailure(Throwable[] failure) {
+        synchronized (failure) {
+            return failure[0];
+        }
+    }
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright 2019 Blake Zheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blakezheng.widget.cordiformview;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes the image of a {@link HeartSpec}, without android and without a display. Renderers keep no state
+ * between calls and may be shared by threads, see {@link HeartBatch}.
+ */
+public interface HeartRenderer {
+
+    /**
+     * @param out left open
+     */
+    void render(HeartSpec spec, OutputStream out) throws IOException;
+}
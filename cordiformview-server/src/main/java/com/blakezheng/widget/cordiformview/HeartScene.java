@@ -0,0 +1,342 @@
+/*
+ * Copyright 2019 Blake Zheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blakezheng.widget.cordiformview;
+
+import java.awt.Font;
+import java.awt.Shape;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.awt.font.LineMetrics;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Arc2D;
+import java.awt.geom.Path2D;
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.blakezheng.widget.cordiformview.CordiformSegments.LEFT_PART_END;
+import static com.blakezheng.widget.cordiformview.CordiformSegments.PART_BOTTOM;
+import static com.blakezheng.widget.cordiformview.CordiformSegments.PART_LEFT;
+import static com.blakezheng.widget.cordiformview.CordiformSegments.PART_RIGHT;
+import static com.blakezheng.widget.cordiformview.CordiformSegments.RIGHT_PART_END;
+import static com.blakezheng.widget.cordiformview.HeartMetrics.FULL_PROGRESS;
+import static com.blakezheng.widget.cordiformview.HeartMetrics.SQRT_TWO;
+import static com.blakezheng.widget.cordiformview.HeartMetrics.TEXT_HEIGHT_SCALE;
+
+/**
+ * Shapes a heart is drawn of, built from a {@link HeartSpec} with the numbers of {@code CordiformPainter}
+ * and {@code CordiformGeometry} so that images look like the view. Both renderers draw the same scene,
+ * texts are glyph outlines laid out here and don't depend on the fonts of whoever opens an image.
+ */
+final class HeartScene {
+    private final static String ELLIPSIS = "\u2026";
+    //fractional metrics like the text of android, no transform
+    private final static FontRenderContext FONT_RENDER_CONTEXT = new FontRenderContext(null, true, true);
+
+    private final static float ALIGN_LEFT = 0;
+    private final static float ALIGN_CENTER = 0.5f;
+    private final static float ALIGN_RIGHT = 1;
+
+    final int width;
+    final int height;
+    final HeartMetrics metrics;
+
+    //the whole outline blurred below everything else, null without a shadow
+    final Shape shadowOutline;
+    //gaussian deviation of a BlurMaskFilter of the shadow radius, see SkBlurMask::ConvertRadiusToSigma
+    final float shadowSigma;
+    final int shadowDx;
+    final int shadowDy;
+    final int shadowColor;
+
+    //in drawing order
+    final List<Layer> layers = new ArrayList<>();
+
+    private final float[] pos = new float[2];
+    private final float[] tan = new float[2];
+
+    HeartScene(HeartSpec spec) {
+        width = spec.width;
+        height = spec.height;
+        float outerTextSize = spec.actualOuterTextSize();
+        metrics = new HeartMetrics(new HeartMetrics.Key().set(width, height, 0, 0, 0, 0,
+                spec.strokeWidth, spec.shadowRadius, spec.shadowDx, spec.shadowDy,
+                outerTextSize, spec.outerTextOffset));
+        shadowDx = spec.shadowDx;
+        shadowDy = spec.shadowDy;
+        shadowColor = spec.shadowColor;
+        shadowSigma = 0.57735f * spec.shadowRadius + 0.5f;
+        HeartMetrics m = metrics;
+        if(m.isEmpty()){
+            shadowOutline = null;
+            return;
+        }
+        shadowOutline = spec.shadowRadius > 0 ? outline(m, 0, 1) : null;
+
+        Font font = new Font(spec.fontFamily, Font.PLAIN, 1);
+        if(spec.hasOuterTexts()){
+            float offset = outerTextSize * TEXT_HEIGHT_SCALE + spec.outerTextOffset;
+            Font outerFont = font.deriveFont(outerTextSize);
+            addText(spec.bottomOuterText, outerTextPath(m, offset, PART_BOTTOM), outerFont, ALIGN_CENTER, 0, 0, false, spec.colors[2]);
+            addText(spec.rightOuterText, outerTextPath(m, offset, PART_RIGHT), outerFont, ALIGN_CENTER, 0, 0, false, spec.colors[1]);
+            addText(spec.leftOuterText, outerTextPath(m, offset, PART_LEFT), outerFont, ALIGN_CENTER, 0, 0, false, spec.colors[0]);
+        }
+
+        //every remaining background below every progress, see CordiformPainter#drawRemaining
+        CordiformSegments s = spec.segments;
+        for(int i = s.count - 1; i >= 0; i--){
+            float ratio = progressRatio(spec.progress[i]);
+            if(ratio < 1){
+                float start = s.bounds[i];
+                float end = s.bounds[i + 1];
+                layers.add(new Layer(outline(m, start + (end - start) * ratio, end),
+                        HeartColors.parseToDarkColor(spec.colors[i]), m.strokeWidth));
+            }
+        }
+        for(int i = s.count - 1; i >= 0; i--){
+            float ratio = progressRatio(spec.progress[i]);
+            if(ratio > 0){
+                float start = s.bounds[i];
+                float end = ratio < 1 ? start + (s.bounds[i + 1] - start) * ratio : s.bounds[i + 1];
+                layers.add(new Layer(outline(m, start, end), spec.colors[i], m.strokeWidth));
+            }
+        }
+
+        if(spec.hasInnerTexts()){
+            //height of inner texts must be smaller than the stroke width
+            float innerTextSize = spec.innerTextSize;
+            if(innerTextSize > m.strokeWidth / TEXT_HEIGHT_SCALE){
+                innerTextSize = m.strokeWidth / TEXT_HEIGHT_SCALE;
+            }else if(innerTextSize <= 0){
+                innerTextSize = m.strokeWidth / TEXT_HEIGHT_SCALE / 1.5f;
+            }
+            float minTextSize = spec.minInnerTextSize > 0 ? Math.min(spec.minInnerTextSize, innerTextSize) : innerTextSize;
+            Font innerFont = font.deriveFont(innerTextSize);
+            addText(spec.leftInnerText, innerTextPath(m, PART_LEFT), innerFont, ALIGN_RIGHT, 0, minTextSize, true, spec.innerTextColor);
+            addText(spec.rightInnerText, innerTextPath(m, PART_RIGHT), innerFont, ALIGN_LEFT, 1, minTextSize, true, spec.innerTextColor);
+            addText(spec.bottomInnerText, innerTextPath(m, PART_BOTTOM), innerFont, ALIGN_LEFT, 0, minTextSize, true, spec.innerTextColor);
+        }
+    }
+
+    private static float progressRatio(float progress) {
+        //NaN draws nothing, like an unset progress
+        return progress > 0 ? Math.min(progress, FULL_PROGRESS) / FULL_PROGRESS : 0;
+    }
+
+    /**
+     * Lays the glyphs of a text out along a path like {@code PathTextLayout}, fitted texts are shrunk
+     * down to {@code minTextSize} and then ellipsized.
+     */
+    private void addText(String text, Shape path, Font font, float align, float hOffset,
+                         float minTextSize, boolean fit, int color) {
+        if(HeartSpec.isEmpty(text)){
+            return;
+        }
+        FlatPath flatPath = new FlatPath(path);
+        float available = flatPath.getLength() - hOffset;
+        if(fit && available > 0 && advance(text, font) > available){
+            float textSize = font.getSize2D();
+            if(minTextSize < textSize){
+                //advances grow linearly with the text size
+                font = font.deriveFont(Math.max(minTextSize, textSize * available / advance(text, font)));
+            }
+            text = ellipsize(text, available, font);
+            if(text.isEmpty()){
+                return;
+            }
+        }
+
+        if(align != ALIGN_LEFT){
+            hOffset += align * (flatPath.getLength() - advance(text, font));
+        }
+        LineMetrics lineMetrics = font.getLineMetrics(text, FONT_RENDER_CONTEXT);
+        //centers the glyphs on the path, like CordiformPainter#calTextVOffset
+        float vOffset = (lineMetrics.getAscent() + lineMetrics.getDescent()) / 2 - lineMetrics.getDescent();
+
+        GlyphVector glyphs = font.createGlyphVector(FONT_RENDER_CONTEXT, text);
+        Path2D.Float textPath = new Path2D.Float();
+        for(int i = 0; i < glyphs.getNumGlyphs(); i++){
+            Point2D position = glyphs.getGlyphPosition(i);
+            if(!flatPath.getPosTan(hOffset + (float) position.getX(), pos, tan)){
+                pos[0] = pos[1] = 0;
+                tan[0] = 1;
+                tan[1] = 0;
+            }
+            AffineTransform transform = AffineTransform.getTranslateInstance(pos[0] - tan[1] * vOffset, pos[1] + tan[0] * vOffset);
+            transform.rotate(tan[0], tan[1]);
+            //glyph outlines have to start at their own origin
+            transform.translate(-position.getX(), -position.getY());
+            textPath.append(transform.createTransformedShape(glyphs.getGlyphOutline(i)), false);
+        }
+        layers.add(new Layer(textPath, color, 0));
+    }
+
+    private static float advance(String text, Font font) {
+        return (float) font.getStringBounds(text, FONT_RENDER_CONTEXT).getWidth();
+    }
+
+    /**
+     * @return {@code text} if it fits into {@code available}, else as much of it as fits followed by an ellipsis
+     */
+    private static String ellipsize(String text, float available, Font font) {
+        if(advance(text, font) <= available){
+            return text;
+        }
+        float ellipsisWidth = advance(ELLIPSIS, font);
+        if(ellipsisWidth > available){
+            return "";
+        }
+        int count = text.length();
+        while(count > 0 && advance(text.substring(0, count), font) > available - ellipsisWidth){
+            count--;
+        }
+        //never split a surrogate pair
+        if(count > 0 && Character.isHighSurrogate(text.charAt(count - 1))){
+            count--;
+        }
+        return text.substring(0, count) + ELLIPSIS;
+    }
+
+    /**
+     * Part of the outline between two fractions, with the piecewise parametrization of {@link CordiformSegments}:
+     * the left lobe, the right lobe, then the right line, the bottom arc and the left line by length.
+     */
+    static Path2D.Float outline(HeartMetrics m, float from, float to) {
+        Path2D.Float path = new Path2D.Float();
+        float radius = m.sideLength / 2f;
+        float leftCx = m.xOffset + radius;
+        float rightCx = m.drawableWidth - radius + m.xOffset;
+        float cy = m.yOffset + radius;
+        arc(path, leftCx, cy, radius, 135, 180, 0, LEFT_PART_END, from, to);
+        arc(path, rightCx, cy, radius, -135, 180, LEFT_PART_END, RIGHT_PART_END, from, to);
+
+        float rightLine = (float) Math.hypot(m.rightLineEndX - m.rightLineStartX, m.rightLineEndY - m.rightLineStartY);
+        float bottomArc = (float) (Math.PI * m.bottomArcRadius / 2);
+        float scale = (1 - RIGHT_PART_END) / m.bottomPartLength;
+        float rightLineEnd = RIGHT_PART_END + rightLine * scale;
+        float bottomArcEnd = rightLineEnd + bottomArc * scale;
+        line(path, m.rightLineStartX, m.rightLineStartY, m.rightLineEndX, m.rightLineEndY, RIGHT_PART_END, rightLineEnd, from, to);
+        arc(path, m.bottomArcCx, m.bottomArcCy, m.bottomArcRadius, 45, 90, rightLineEnd, bottomArcEnd, from, to);
+        line(path, m.leftLineStartX, m.leftLineStartY, m.leftLineEndX, m.leftLineEndY, bottomArcEnd, 1, from, to);
+        return path;
+    }
+
+    /**
+     * Adds the part of an arc between {@code from} and {@code to}, the arc spans {@code start} to {@code end} of the outline.
+     */
+    private static void arc(Path2D.Float path, float cx, float cy, float radius, float startAngle, float sweepAngle,
+                            float start, float end, float from, float to) {
+        float a = Math.max(from, start);
+        float b = Math.min(to, end);
+        if(a >= b){
+            return;
+        }
+        float length = end - start;
+        arcTo(path, cx, cy, radius, startAngle + sweepAngle * (a - start) / length, sweepAngle * (b - a) / length);
+    }
+
+    private static void line(Path2D.Float path, float startX, float startY, float stopX, float stopY,
+                             float start, float end, float from, float to) {
+        float a = Math.max(from, start);
+        float b = Math.min(to, end);
+        if(a >= b){
+            return;
+        }
+        float length = end - start;
+        float fromRatio = (a - start) / length;
+        float toRatio = (b - start) / length;
+        float x = startX + (stopX - startX) * fromRatio;
+        float y = startY + (stopY - startY) * fromRatio;
+        if(path.getCurrentPoint() == null){
+            path.moveTo(x, y);
+        }else{
+            path.lineTo(x, y);
+        }
+        path.lineTo(startX + (stopX - startX) * toRatio, startY + (stopY - startY) * toRatio);
+    }
+
+    /**
+     * Like {@code Path#arcTo(RectF, float, float)}: angles in degrees clockwise from the x axis,
+     * connected to the current point by a line if there is one.
+     */
+    private static void arcTo(Path2D.Float path, float cx, float cy, float radius, float startAngle, float sweepAngle) {
+        //Arc2D angles run counterclockwise on the screen
+        Arc2D.Float arc = new Arc2D.Float(cx - radius, cy - radius, 2 * radius, 2 * radius, -startAngle, -sweepAngle, Arc2D.OPEN);
+        path.append(arc, path.getCurrentPoint() != null);
+    }
+
+    /**
+     * Path an inner text runs along, see {@code CordiformGeometry#getInnerTextPaths()}.
+     */
+    static Path2D.Float innerTextPath(HeartMetrics m, int part) {
+        Path2D.Float path = new Path2D.Float();
+        float radius = m.sideLength / 2f;
+        if(part == PART_LEFT){
+            path.moveTo(m.leftLineEndX, m.leftLineEndY);
+            arcTo(path, m.xOffset + radius, m.yOffset + radius, radius, 135, 180);
+        }else if(part == PART_RIGHT){
+            path.moveTo(m.rightLineStartX, m.rightLineStartY);
+            arcTo(path, m.drawableWidth - radius + m.xOffset, m.yOffset + radius, radius, 45, -180);
+        }else{
+            path.moveTo(m.leftLineEndX, m.leftLineEndY);
+            path.lineTo(m.leftLineStartX, m.leftLineStartY);
+            arcTo(path, m.bottomArcCx, m.bottomArcCy, m.bottomArcRadius, 135, -90);
+            path.lineTo(m.rightLineStartX, m.rightLineStartY);
+        }
+        return path;
+    }
+
+    /**
+     * Path an outer text runs along, see {@code CordiformGeometry#getOuterTextPaths(float)}.
+     */
+    static Path2D.Float outerTextPath(HeartMetrics m, float offsetWhileDrawing, int part) {
+        Path2D.Float path = new Path2D.Float();
+        float radius = m.sideLength / 2f;
+        float outerInset = (m.strokeWidth + offsetWhileDrawing) / 2;
+        if(part == PART_LEFT){
+            path.moveTo(m.leftLineEndX - outerInset, m.leftLineEndY - outerInset);
+            arcTo(path, m.xOffset + radius, m.yOffset + radius, radius + outerInset, 135, 180);
+        }else if(part == PART_RIGHT){
+            path.moveTo(m.drawableWidth / 2 - outerInset + m.xOffset,
+                    m.drawableHeight - SQRT_TWO * m.sideLength - outerInset + m.yOffset);
+            arcTo(path, m.drawableWidth - radius + m.xOffset, m.yOffset + radius, radius + outerInset, -135, 180);
+        }else{
+            float halfLengthDiagonalLine = SQRT_TWO * m.sideLength / 2;
+            int xMidPointOfRound = (int) (m.sideLength / 2 + SQRT_TWO * m.sideLength / 4 + m.xOffset);
+            int yMidPointOfRound = (int) (m.sideLength / 2 + SQRT_TWO * m.sideLength / 4 + m.yOffset);
+            float bottomRadius = halfLengthDiagonalLine + m.strokeWidth / 2;
+            path.moveTo(xMidPointOfRound - bottomRadius, yMidPointOfRound);
+            arcTo(path, xMidPointOfRound, yMidPointOfRound, bottomRadius, 180, -180);
+        }
+        return path;
+    }
+
+    /**
+     * A stroked or, for glyphs, filled shape in one color.
+     */
+    static final class Layer {
+        final Shape shape;
+        final int color;
+        //0 for filled shapes
+        final float strokeWidth;
+
+        Layer(Shape shape, int color, float strokeWidth) {
+            this.shape = shape;
+            this.color = color;
+            this.strokeWidth = strokeWidth;
+        }
+    }
+}
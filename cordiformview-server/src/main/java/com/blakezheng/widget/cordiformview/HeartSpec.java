@@ -0,0 +1,205 @@
+/*
+ * Copyright 2019 Blake Zheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blakezheng.widget.cordiformview;
+
+import java.awt.Font;
+
+/**
+ * Everything a {@link HeartRenderer} draws, the server side counterpart of {@code CordiformState}
+ * plus the size of the image. Sizes are in pixels, colors are packed ARGB ints.
+ * A spec must not be changed while it is rendered.
+ */
+public final class HeartSpec {
+    //same as R.color.default_*
+    private final static int DEFAULT_LEFT_ARC_COLOR = 0xffff4abf;
+    private final static int DEFAULT_RIGHT_ARC_COLOR = 0xff7ef953;
+    private final static int DEFAULT_BOTTOM_LINE_COLOR = 0xff2076ff;
+    //android.graphics.Color.GRAY and BLACK
+    private final static int DEFAULT_SHADOW_COLOR = 0xff888888;
+    private final static int DEFAULT_INNER_TEXT_COLOR = 0xff000000;
+    //the view picks 10dp, images have no density
+    private final static float DEFAULT_OUTER_TEXT_SIZE = 10;
+
+    int width;
+    int height;
+
+    CordiformSegments segments = CordiformSegments.threeParts();
+    final float[] progress = new float[CordiformSegments.MAX_COUNT];
+    final int[] colors = new int[CordiformSegments.MAX_COUNT];
+
+    String leftInnerText;
+    String rightInnerText;
+    String bottomInnerText;
+    String leftOuterText;
+    String rightOuterText;
+    String bottomOuterText;
+
+    int innerTextColor = DEFAULT_INNER_TEXT_COLOR;
+    float innerTextSize;
+    float minInnerTextSize;
+    float outerTextSize;
+    int outerTextOffset;
+    String fontFamily = Font.SANS_SERIF;
+
+    int strokeWidth;
+
+    int shadowRadius;
+    int shadowDx;
+    int shadowDy;
+    int shadowColor = DEFAULT_SHADOW_COLOR;
+
+    public HeartSpec(int width, int height) {
+        setSize(width, height);
+        //like the view, segments past the three parts start with the colors of the parts
+        for(int i = 0; i < colors.length; i += 3){
+            colors[i] = DEFAULT_LEFT_ARC_COLOR;
+            colors[i + 1] = DEFAULT_RIGHT_ARC_COLOR;
+            colors[i + 2] = DEFAULT_BOTTOM_LINE_COLOR;
+        }
+    }
+
+    public HeartSpec setSize(int width, int height) {
+        if(width <= 0 || height <= 0){
+            throw new IllegalArgumentException("size must be positive: " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+        return this;
+    }
+
+    public HeartSpec setSegments(CordiformSegments segments) {
+        if(segments == null){
+            throw new IllegalArgumentException("segments must not be null");
+        }
+        this.segments = segments;
+        return this;
+    }
+
+    /**
+     * Percents of the first three segments, clamped to [0, 100] when rendered.
+     */
+    public HeartSpec setProgress(float left, float right, float bottom) {
+        progress[0] = left;
+        progress[1] = right;
+        progress[2] = bottom;
+        return this;
+    }
+
+    /**
+     * Percents of the first {@code progress.length} segments.
+     */
+    public HeartSpec setSegmentProgress(float... progress) {
+        if(progress.length > CordiformSegments.MAX_COUNT){
+            throw new IllegalArgumentException("at most " + CordiformSegments.MAX_COUNT + " segments: " + progress.length);
+        }
+        System.arraycopy(progress, 0, this.progress, 0, progress.length);
+        return this;
+    }
+
+    public HeartSpec setColors(int leftArcColor, int rightArcColor, int bottomLineColor) {
+        colors[0] = leftArcColor;
+        colors[1] = rightArcColor;
+        colors[2] = bottomLineColor;
+        return this;
+    }
+
+    public HeartSpec setSegmentColor(int segment, int color) {
+        if(segment < 0 || segment >= CordiformSegments.MAX_COUNT){
+            throw new IndexOutOfBoundsException("segment " + segment);
+        }
+        colors[segment] = color;
+        return this;
+    }
+
+    public HeartSpec setInnerTexts(String left, String right, String bottom) {
+        leftInnerText = left;
+        rightInnerText = right;
+        bottomInnerText = bottom;
+        return this;
+    }
+
+    public HeartSpec setOuterTexts(String left, String right, String bottom) {
+        leftOuterText = left;
+        rightOuterText = right;
+        bottomOuterText = bottom;
+        return this;
+    }
+
+    public HeartSpec setInnerTextColor(int innerTextColor) {
+        this.innerTextColor = innerTextColor;
+        return this;
+    }
+
+    public HeartSpec setInnerTextSize(float innerTextSize) {
+        this.innerTextSize = innerTextSize;
+        return this;
+    }
+
+    public HeartSpec setMinInnerTextSize(float minInnerTextSize) {
+        this.minInnerTextSize = minInnerTextSize;
+        return this;
+    }
+
+    public HeartSpec setOuterTextSize(float outerTextSize) {
+        this.outerTextSize = outerTextSize;
+        return this;
+    }
+
+    public HeartSpec setOuterTextOffset(int outerTextOffset) {
+        this.outerTextOffset = outerTextOffset;
+        return this;
+    }
+
+    /**
+     * Family of the font all texts are drawn with, {@link Font#SANS_SERIF} like the default typeface of android.
+     */
+    public HeartSpec setFontFamily(String fontFamily) {
+        this.fontFamily = fontFamily;
+        return this;
+    }
+
+    public HeartSpec setStrokeWidth(int strokeWidth) {
+        this.strokeWidth = strokeWidth;
+        return this;
+    }
+
+    public HeartSpec setShadow(int radius, int dx, int dy, int color) {
+        shadowRadius = radius;
+        shadowDx = dx;
+        shadowDy = dy;
+        shadowColor = color;
+        return this;
+    }
+
+    boolean hasOuterTexts() {
+        return !isEmpty(leftOuterText) || !isEmpty(rightOuterText) || !isEmpty(bottomOuterText);
+    }
+
+    boolean hasInnerTexts() {
+        return !isEmpty(leftInnerText) || !isEmpty(rightInnerText) || !isEmpty(bottomInnerText);
+    }
+
+    /**
+     * Outer text size actually drawn with, defaults like in {@code CordiformView}.
+     */
+    float actualOuterTextSize() {
+        return outerTextSize <= 0 && hasOuterTexts() ? DEFAULT_OUTER_TEXT_SIZE : outerTextSize;
+    }
+
+    static boolean isEmpty(String text) {
+        return text == null || text.length() == 0;
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2019 Blake Zheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blakezheng.widget.cordiformview;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.image.ConvolveOp;
+import java.awt.image.Kernel;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import javax.imageio.ImageIO;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+
+/**
+ * Rasterizes a heart with java.awt and writes it as a PNG, transparent around the heart.
+ * Only offscreen images are used, it runs headless, e.g. with {@code -Djava.awt.headless=true} on servers.
+ */
+public final class PngHeartRenderer implements HeartRenderer {
+
+    @Override
+    public void render(HeartSpec spec, OutputStream out) throws IOException {
+        BufferedImage image = draw(spec);
+        //ImageIO caches in temporary files by default, slow and contended with many threads
+        ImageOutputStream imageOut = new MemoryCacheImageOutputStream(out);
+        try {
+            if(!ImageIO.write(image, "png", imageOut)){
+                throw new IOException("no PNG writer");
+            }
+        } finally {
+            imageOut.close();
+        }
+    }
+
+    public BufferedImage draw(HeartSpec spec) {
+        HeartScene scene = new HeartScene(spec);
+        BufferedImage image = new BufferedImage(scene.width, scene.height, BufferedImage.TYPE_INT_ARGB);
+        if(scene.shadowOutline != null){
+            Graphics2D g = image.createGraphics();
+            g.drawImage(shadow(scene), scene.shadowDx, scene.shadowDy, null);
+            g.dispose();
+        }
+
+        Graphics2D g = image.createGraphics();
+        try {
+            setHints(g);
+            for(HeartScene.Layer layer : scene.layers){
+                g.setColor(new Color(layer.color, true));
+                if(layer.strokeWidth > 0){
+                    g.setStroke(new BasicStroke(layer.strokeWidth, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+                    g.draw(layer.shape);
+                }else{
+                    g.fill(layer.shape);
+                }
+            }
+        } finally {
+            g.dispose();
+        }
+        return image;
+    }
+
+    private static void setHints(Graphics2D g) {
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        //skia doesn't move strokes onto pixel centers either
+        g.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+    }
+
+    /**
+     * The stroked outline blurred in two passes of a gaussian kernel, like {@code CordiformPainter} bakes its shadow.
+     */
+    private static BufferedImage shadow(HeartScene scene) {
+        float[] weights = gaussian(scene.shadowSigma);
+        //zero filled edges of the kernel's reach would cut the halo off where the outline comes close to the image edge
+        int pad = weights.length / 2;
+        //premultiplied, transparent pixels must not blur their color into the edges
+        BufferedImage outline = new BufferedImage(scene.width + 2 * pad, scene.height + 2 * pad, BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D g = outline.createGraphics();
+        try {
+            setHints(g);
+            g.translate(pad, pad);
+            g.setColor(new Color(scene.shadowColor, true));
+            g.setStroke(new BasicStroke(scene.metrics.strokeWidth, BasicStroke.CAP_BUTT, BasicStroke.JOIN_ROUND));
+            g.draw(scene.shadowOutline);
+        } finally {
+            g.dispose();
+        }
+
+        ConvolveOp horizontal = new ConvolveOp(new Kernel(weights.length, 1, weights), ConvolveOp.EDGE_ZERO_FILL, null);
+        ConvolveOp vertical = new ConvolveOp(new Kernel(1, weights.length, weights), ConvolveOp.EDGE_ZERO_FILL, null);
+        return vertical.filter(horizontal.filter(outline, null), null).getSubimage(pad, pad, scene.width, scene.height);
+    }
+
+    /**
+     * @return normalized weights of a one dimensional gaussian kernel reaching three deviations
+     */
+    static float[] gaussian(float sigma) {
+        int radius = (int) Math.ceil(3 * sigma);
+        float[] weights = new float[2 * radius + 1];
+        float sum = 0;
+        for(int i = -radius; i <= radius; i++){
+            float weight = (float) Math.exp(-i * i / (2 * sigma * sigma));
+            weights[i + radius] = weight;
+            sum += weight;
+        }
+        for(int i = 0; i < weights.length; i++){
+            weights[i] /= sum;
+        }
+        return weights;
+    }
+}
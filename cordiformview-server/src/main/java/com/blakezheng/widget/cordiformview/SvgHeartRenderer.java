@@ -0,0 +1,153 @@
+/*
+ * Copyright 2019 Blake Zheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blakezheng.widget.cordiformview;
+
+import java.awt.Shape;
+import java.awt.geom.PathIterator;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes a heart as an SVG document. Strokes keep the round caps and joins of the view, the shadow is
+ * a gaussian blur of the same deviation and texts are glyph outlines, so the document needs no fonts to be viewed.
+ */
+public final class SvgHeartRenderer implements HeartRenderer {
+
+    @Override
+    public void render(HeartSpec spec, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(toSvg(spec));
+        writer.flush();
+    }
+
+    public String toSvg(HeartSpec spec) {
+        HeartScene scene = new HeartScene(spec);
+        StringBuilder svg = new StringBuilder(4096);
+        svg.append("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"").append(scene.width)
+                .append("\" height=\"").append(scene.height)
+                .append("\" viewBox=\"0 0 ").append(scene.width).append(' ').append(scene.height).append("\">\n");
+
+        if(scene.shadowOutline != null){
+            //the region is the image, in the space of the shifted outline
+            svg.append("<defs><filter id=\"shadow\" filterUnits=\"userSpaceOnUse\" x=\"").append(-scene.shadowDx)
+                    .append("\" y=\"").append(-scene.shadowDy)
+                    .append("\" width=\"").append(scene.width).append("\" height=\"").append(scene.height)
+                    .append("\"><feGaussianBlur stdDeviation=\"");
+            number(svg, scene.shadowSigma);
+            svg.append("\"/></filter></defs>\n");
+            svg.append("<path fill=\"none\"");
+            color(svg, "stroke", scene.shadowColor);
+            svg.append(" stroke-width=\"").append(scene.metrics.strokeWidth)
+                    .append("\" stroke-linejoin=\"round\" filter=\"url(#shadow)\" transform=\"translate(")
+                    .append(scene.shadowDx).append(' ').append(scene.shadowDy).append(")\" d=\"");
+            pathData(svg, scene.shadowOutline);
+            svg.append("\"/>\n");
+        }
+
+        for(HeartScene.Layer layer : scene.layers){
+            if(layer.strokeWidth > 0){
+                svg.append("<path fill=\"none\"");
+                color(svg, "stroke", layer.color);
+                svg.append(" stroke-width=\"");
+                number(svg, layer.strokeWidth);
+                svg.append("\" stroke-linecap=\"round\" stroke-linejoin=\"round\"");
+            }else{
+                svg.append("<path");
+                color(svg, "fill", layer.color);
+            }
+            svg.append(" d=\"");
+            pathData(svg, layer.shape);
+            svg.append("\"/>\n");
+        }
+        return svg.append("</svg>\n").toString();
+    }
+
+    private static void color(StringBuilder svg, String attribute, int color) {
+        svg.append(' ').append(attribute).append("=\"#");
+        String rgb = Integer.toHexString(color & 0xffffff);
+        for(int i = rgb.length(); i < 6; i++){
+            svg.append('0');
+        }
+        svg.append(rgb).append('"');
+        int alpha = color >>> 24;
+        if(alpha != 0xff){
+            svg.append(' ').append(attribute).append("-opacity=\"");
+            number(svg, alpha / 255f);
+            svg.append('"');
+        }
+    }
+
+    private static void pathData(StringBuilder svg, Shape shape) {
+        float[] coords = new float[6];
+        for(PathIterator it = shape.getPathIterator(null); !it.isDone(); it.next()){
+            int type = it.currentSegment(coords);
+            int points;
+            switch(type){
+                case PathIterator.SEG_MOVETO:
+                    svg.append('M');
+                    points = 1;
+                    break;
+                case PathIterator.SEG_LINETO:
+                    svg.append('L');
+                    points = 1;
+                    break;
+                case PathIterator.SEG_QUADTO:
+                    svg.append('Q');
+                    points = 2;
+                    break;
+                case PathIterator.SEG_CUBICTO:
+                    svg.append('C');
+                    points = 3;
+                    break;
+                default:
+                    svg.append('Z');
+                    points = 0;
+                    break;
+            }
+            for(int i = 0; i < 2 * points; i++){
+                if(i > 0){
+                    svg.append(' ');
+                }
+                number(svg, coords[i]);
+            }
+        }
+    }
+
+    /**
+     * Appends a number with at most two decimals, never in scientific notation and independent of the locale.
+     */
+    static void number(StringBuilder svg, float value) {
+        long hundredths = Math.round(value * 100d);
+        if(hundredths < 0){
+            svg.append('-');
+            hundredths = -hundredths;
+        }
+        svg.append(hundredths / 100);
+        int fraction = (int) (hundredths % 100);
+        if(fraction != 0){
+            svg.append('.');
+            if(fraction < 10){
+                svg.append('0').append(fraction);
+            }else{
+                svg.append(fraction % 10 == 0 ? fraction / 10 : fraction);
+            }
+        }
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2019 Blake Zheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blakezheng.widget.cordiformview;
+
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.xml.sax.InputSource;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import javax.imageio.ImageIO;
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Runs headless on the plain JVM like on a server.
+ */
+public class HeartRendererTest {
+
+    @Test
+    public void outlineFollowsSegmentParametrization() {
+        HeartMetrics m = new HeartScene(new HeartSpec(600, 600)).metrics;
+        float[] expected = new float[2];
+        float[] actual = new float[6];
+        for(float fraction = 0; fraction < 1; fraction += 0.05f){
+            HeartTouchMap.outlinePoint(m, fraction, expected);
+            HeartScene.outline(m, fraction, 1).getPathIterator(null).currentSegment(actual);
+            assertArrayEquals("fraction " + fraction, expected, new float[]{actual[0], actual[1]}, 0.5f);
+        }
+    }
+
+    @Test
+    public void pngShowsProgressAndRemaining() throws IOException {
+        HeartSpec spec = new HeartSpec(300, 300).setProgress(100, 0, 50).setColors(0xffff0000, 0xff00ff00, 0xff0000ff);
+        byte[] png = render(new PngHeartRenderer(), spec);
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+        HeartMetrics m = new HeartScene(spec).metrics;
+
+        assertEquals(300, image.getWidth());
+        assertEquals(300, image.getHeight());
+        assertEquals(0xffff0000, pixelAt(image, m, CordiformSegments.LEFT_PART_END / 2));
+        assertEquals(HeartColors.parseToDarkColor(0xff00ff00),
+                pixelAt(image, m, (CordiformSegments.LEFT_PART_END + CordiformSegments.RIGHT_PART_END) / 2));
+        //the bottom is half done
+        assertEquals(0xff0000ff, pixelAt(image, m, CordiformSegments.RIGHT_PART_END + 0.1f));
+        assertEquals(HeartColors.parseToDarkColor(0xff0000ff), pixelAt(image, m, 0.95f));
+        assertEquals(0, image.getRGB(150, 150));
+    }
+
+    @Test
+    public void pngShadowReachesTheImageEdges() {
+        HeartSpec spec = new HeartSpec(300, 300).setShadow(10, 0, 0, 0xff000000);
+        BufferedImage image = new PngHeartRenderer().draw(spec);
+
+        //the outline touches the left edge, the halo around it lies within the blur radius of the edge
+        int halo = 0;
+        for(int y = 0; y < image.getHeight(); y++){
+            int alpha = image.getRGB(1, y) >>> 24;
+            if(alpha > 0 && alpha < 0xff){
+                halo++;
+            }
+        }
+        //more than the few antialiased pixels along the stroke
+        assertTrue("halo pixels " + halo, halo > 20);
+    }
+
+    @Test
+    public void svgHasOneStrokePerProgressAndRemaining() throws Exception {
+        HeartSpec spec = new HeartSpec(300, 300).setSegments(CordiformSegments.even(6))
+                .setSegmentProgress(0, 20, 40, 60, 80, 100);
+        String svg = new String(render(new SvgHeartRenderer(), spec), "UTF-8");
+        Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder()
+                .parse(new InputSource(new StringReader(svg)));
+
+        //the first segment has no progress and the last no remaining background
+        assertEquals(10, document.getElementsByTagName("path").getLength());
+    }
+
+    @Test
+    public void svgNumbersIgnoreLocale() {
+        StringBuilder out = new StringBuilder();
+        SvgHeartRenderer.number(out, 12.5f);
+        out.append(' ');
+        SvgHeartRenderer.number(out, -0.05f);
+        out.append(' ');
+        SvgHeartRenderer.number(out, 3);
+        assertEquals("12.5 -0.05 3", out.toString());
+    }
+
+    @Test
+    public void batchWritesEveryImageOnce() throws Exception {
+        List<HeartSpec> specs = new ArrayList<>();
+        for(int i = 0; i < 100; i++){
+            specs.add(new HeartSpec(120, 120).setProgress(i, 100 - i, 50));
+        }
+        final AtomicIntegerArray writes = new AtomicIntegerArray(specs.size());
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            int written = new HeartBatch(new PngHeartRenderer(), executor, 3).render(specs.iterator(), new HeartBatch.Output() {
+                @Override
+                public void write(int index, byte[] image) {
+                    writes.incrementAndGet(index);
+                }
+            });
+            assertEquals(specs.size(), written);
+        } finally {
+            executor.shutdown();
+        }
+        for(int i = 0; i < specs.size(); i++){
+            assertEquals("image " + i, 1, writes.get(i));
+        }
+    }
+
+    @Test
+    public void batchRethrowsFailure() throws Exception {
+        List<HeartSpec> specs = new ArrayList<>();
+        for(int i = 0; i < 20; i++){
+            specs.add(new HeartSpec(120, 120));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            new HeartBatch(new SvgHeartRenderer(), executor).render(specs.iterator(), new HeartBatch.Output() {
+                @Override
+                public void write(int index, byte[] image) throws IOException {
+                    if(index == 3){
+                        throw new IOException("disk full");
+                    }
+                }
+            });
+            fail();
+        } catch (IOException e) {
+            assertEquals("disk full", e.getMessage());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void batchRethrowsError() throws Exception {
+        List<HeartSpec> specs = new ArrayList<>();
+        for(int i = 0; i < 20; i++){
+            specs.add(new HeartSpec(120, 120));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            new HeartBatch(new HeartRenderer() {
+                @Override
+                public void render(HeartSpec spec, OutputStream out) {
+                    throw new OutOfMemoryError("image too large");
+                }
+            }, executor).render(specs.iterator(), new HeartBatch.Output() {
+                @Override
+                public void write(int index, byte[] image) {
+                }
+            });
+            fail();
+        } catch (OutOfMemoryError e) {
+            assertEquals("image too large", e.getMessage());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static byte[] render(HeartRenderer renderer, HeartSpec spec) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        renderer.render(spec, out);
+        return out.toByteArray();
+    }
+
+    private static int pixelAt(BufferedImage image, HeartMetrics m, float fraction) {
+        float[] point = new float[2];
+        HeartTouchMap.outlinePoint(m, fraction, point);
+        return image.getRGB(Math.round(point[0]), Math.round(point[1]));
+    }
+}
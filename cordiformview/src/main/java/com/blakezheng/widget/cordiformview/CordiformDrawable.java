@@ -0,0 +1,316 @@
+/*
+ * Copyright 2019 Blake Zheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blakezheng.widget.cordiformview;
+
+import android.content.res.Resources;
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+import android.os.Build;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Draws the same heart as {@link CordiformView} without a view, e.g. inside an {@code ImageView},
+ * as compound drawable or into a bitmap. The heart fills the bounds the way the view fills its content area.
+ * <p>
+ * {@link #setLevel(int)} sets all three progresses at once, 10000 being 100 percent,
+ * use {@link #setProgress(float, float, float)} to set them one by one.
+ * Drawables created from the same {@link #getConstantState() constant state} start with the same properties,
+ * call {@link #mutate()} before changing one of them. Progress is a drawable's own like its bounds and its level,
+ * progresses set through either don't reach the constant state, so drawables sharing it, e.g. in the rows of a list,
+ * show their own progress without being mutated.
+ * <p>
+ * The intrinsic size is that of a heart {@value #INTRINSIC_WIDTH_DP}dp wide plus the room its shadow
+ * and outer texts need, like the view's paddings.
+ */
+public class CordiformDrawable extends Drawable {
+    private final static int MAX_LEVEL = 10000;
+    private final static int INTRINSIC_WIDTH_DP = 48;
+
+    private CordiformConstantState constantState;
+    private boolean mutated;
+
+    private CordiformPainter painter;
+    private boolean geometryDirty = true;
+    //progress of the three parts, the level sets it without touching the shared state
+    private final float[] progress = new float[3];
+    private HeartMetrics.Key geometryKey = new HeartMetrics.Key();
+    private int alpha = 255;
+    //blit the baked shadow on every canvas like the view, not only where shadow layers are missing
+    private boolean bakeShadow;
+
+    public CordiformDrawable() {
+        this(new CordiformState());
+    }
+
+    public CordiformDrawable(CordiformState state) {
+        this(new CordiformConstantState(new CordiformState(state)));
+    }
+
+    private CordiformDrawable(CordiformConstantState constantState) {
+        this.constantState = constantState;
+        CordiformState state = constantState.state;
+        painter = new CordiformPainter(state.getLeftArcColor(), state.getRightArcColor(), state.getBottomLineColor(),
+                state.getShadowColor(), state.getInnerTextColor());
+        applyState(state);
+        setProgressOf(state);
+    }
+
+    /**
+     * Show the given state, the state itself is not retained.
+     */
+    public void bind(CordiformState state) {
+        constantState.state.set(state);
+        applyState(constantState.state);
+        setProgressOf(constantState.state);
+        geometryDirty = true;
+        invalidateSelf();
+    }
+
+    /**
+     * Copy what the drawable currently shows into {@code outState}.
+     */
+    public CordiformState getCordiformState(CordiformState outState) {
+        return outState.set(constantState.state).setProgress(progress[0], progress[1], progress[2]);
+    }
+
+    private void applyState(CordiformState state) {
+        state.setProgress(clampProgress(state.getLeftProgress()),
+                clampProgress(state.getRightProgress()),
+                clampProgress(state.getBottomProgress()));
+        painter.setLeftArcColor(state.getLeftArcColor());
+        painter.setRightArcColor(state.getRightArcColor());
+        painter.setBottomLineColor(state.getBottomLineColor());
+        painter.setShadow(state.getShadowRadius(), state.getShadowDx(), state.getShadowDy(), state.getShadowColor());
+        painter.setInnerTexts(state.getLeftInnerText(), state.getRightInnerText(), state.getBottomInnerText());
+        painter.setOuterTexts(state.getLeftOuterText(), state.getRightOuterText(), state.getBottomOuterText());
+        painter.setInnerTextColor(state.getInnerTextColor());
+        painter.setInnerTextSize(state.getInnerTextSize());
+        painter.setMinInnerTextSize(state.getMinInnerTextSize());
+        float outerTextSize = state.getOuterTextSize();
+        if(outerTextSize <= 0 && painter.hasOuterTexts()){
+            //same default as the view
+            outerTextSize = Resources.getSystem().getDisplayMetrics().density * 10;
+        }
+        painter.setOuterTextSize(outerTextSize);
+    }
+
+    /**
+     * Percents, clamped to [0, 100]. Only this drawable shows them, see {@link CordiformDrawable}.
+     */
+    public void setProgress(float left, float right, float bottom) {
+        left = clampProgress(left);
+        right = clampProgress(right);
+        bottom = clampProgress(bottom);
+        if(progress[0] != left || progress[1] != right || progress[2] != bottom){
+            progress[0] = left;
+            progress[1] = right;
+            progress[2] = bottom;
+            invalidateSelf();
+        }
+    }
+
+    public float getLeftProgress() {
+        return progress[0];
+    }
+
+    public float getRightProgress() {
+        return progress[1];
+    }
+
+    public float getBottomProgress() {
+        return progress[2];
+    }
+
+    private void setProgressOf(CordiformState state) {
+        progress[0] = state.getLeftProgress();
+        progress[1] = state.getRightProgress();
+        progress[2] = state.getBottomProgress();
+    }
+
+    @Override
+    protected boolean onLevelChange(int level) {
+        float levelProgress = HeartMetrics.FULL_PROGRESS * level / MAX_LEVEL;
+        if(progress[0] == levelProgress && progress[1] == levelProgress && progress[2] == levelProgress){
+            return false;
+        }
+        progress[0] = levelProgress;
+        progress[1] = levelProgress;
+        progress[2] = levelProgress;
+        invalidateSelf();
+        return true;
+    }
+
+    /**
+     * Draw the shadow the view draws, blurred once into a bitmap, instead of a shadow layer on canvases that
+     * support one. Used by {@link CordiformRenderer}, whose drawables are reused for many hearts.
+     */
+    void setBakeShadow(boolean bakeShadow) {
+        if(this.bakeShadow != bakeShadow){
+            this.bakeShadow = bakeShadow;
+            invalidateSelf();
+        }
+    }
+
+    @Override
+    public int getIntrinsicWidth() {
+        return HeartMetrics.widthFor(intrinsicKey(), intrinsicDrawableWidth());
+    }
+
+    @Override
+    public int getIntrinsicHeight() {
+        return HeartMetrics.heightFor(intrinsicKey(), intrinsicDrawableWidth());
+    }
+
+    private static int intrinsicDrawableWidth() {
+        return (int) (Resources.getSystem().getDisplayMetrics().density * INTRINSIC_WIDTH_DP);
+    }
+
+    /**
+     * @return the geometry key without a size, the key is only scratch for lookups
+     */
+    private HeartMetrics.Key intrinsicKey() {
+        return setGeometryKey(0, 0);
+    }
+
+    @Override
+    protected void onBoundsChange(Rect bounds) {
+        super.onBoundsChange(bounds);
+        geometryDirty = true;
+    }
+
+    /**
+     * Geometry is computed for the size of the bounds only, so drawables of the same size share it
+     * wherever they are placed. Only done once before drawing after the bounds or the state changed.
+     */
+    private void updateGeometry() {
+        if(!geometryDirty){
+            return;
+        }
+        geometryDirty = false;
+        Rect bounds = getBounds();
+        painter.setGeometry(CordiformGeometry.obtain(setGeometryKey(bounds.width(), bounds.height())));
+    }
+
+    private HeartMetrics.Key setGeometryKey(int width, int height) {
+        CordiformState state = constantState.state;
+        return geometryKey.set(width, height, 0, 0, 0, 0,
+                state.getStrokeWidth(), state.getShadowRadius(), state.getShadowDx(), state.getShadowDy(),
+                painter.outerTextSize, state.getOuterTextOffset());
+    }
+
+    @Override
+    public void draw(@NonNull Canvas canvas) {
+        updateGeometry();
+        if(!painter.hasGeometry()){
+            return;
+        }
+        Rect bounds = getBounds();
+        int saveCount;
+        if(alpha < 255){
+            saveCount = saveLayerAlpha(canvas, bounds, alpha);
+        }else{
+            saveCount = canvas.save();
+        }
+        canvas.translate(bounds.left, bounds.top);
+        //hardware canvases draw shadow layers of paths only since P
+        boolean bake = bakeShadow || (canvas.isHardwareAccelerated() && Build.VERSION.SDK_INT < Build.VERSION_CODES.P);
+        painter.draw(canvas, progress, bake);
+        canvas.restoreToCount(saveCount);
+    }
+
+    @SuppressWarnings("deprecation")
+    private static int saveLayerAlpha(Canvas canvas, Rect bounds, int alpha) {
+        //the overload without save flags only exists since L
+        return canvas.saveLayerAlpha(bounds.left, bounds.top, bounds.right, bounds.bottom, alpha, Canvas.ALL_SAVE_FLAG);
+    }
+
+    @Override
+    public void setAlpha(int alpha) {
+        if(this.alpha != alpha){
+            this.alpha = alpha;
+            invalidateSelf();
+        }
+    }
+
+    @Override
+    public int getAlpha() {
+        return alpha;
+    }
+
+    @Override
+    public void setColorFilter(@Nullable ColorFilter colorFilter) {
+        painter.setColorFilter(colorFilter);
+        invalidateSelf();
+    }
+
+    @Override
+    public int getOpacity() {
+        return PixelFormat.TRANSLUCENT;
+    }
+
+    @Override
+    public int getChangingConfigurations() {
+        return super.getChangingConfigurations() | constantState.changingConfigurations;
+    }
+
+    @Nullable
+    @Override
+    public ConstantState getConstantState() {
+        constantState.changingConfigurations = getChangingConfigurations();
+        return constantState;
+    }
+
+    @NonNull
+    @Override
+    public Drawable mutate() {
+        if(!mutated && super.mutate() == this){
+            constantState = new CordiformConstantState(new CordiformState(constantState.state)
+                    .setProgress(progress[0], progress[1], progress[2]));
+            mutated = true;
+        }
+        return this;
+    }
+
+    private static float clampProgress(float progress){
+        //also maps NaN to 0
+        return progress > 0 ? Math.min(progress, HeartMetrics.FULL_PROGRESS) : 0;
+    }
+
+    private final static class CordiformConstantState extends ConstantState {
+        final CordiformState state;
+        int changingConfigurations;
+
+        CordiformConstantState(CordiformState state) {
+            this.state = state;
+        }
+
+        @NonNull
+        @Override
+        public Drawable newDrawable() {
+            return new CordiformDrawable(this);
+        }
+
+        @Override
+        public int getChangingConfigurations() {
+            return changingConfigurations;
+        }
+    }
+}
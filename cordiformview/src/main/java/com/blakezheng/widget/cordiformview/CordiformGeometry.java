@@ -0,0 +1,223 @@
+/*
+ * Copyright 2019 Blake Zheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blakezheng.widget.cordiformview;
+
+import android.graphics.Path;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.util.LruCache;
+
+import static com.blakezheng.widget.cordiformview.HeartMetrics.SQRT_TWO;
+
+/**
+ * Rects and paths of the heart built from {@link HeartMetrics}. Instances are shared between
+ * views of the same {@link HeartMetrics.Key}, so nothing in here may be modified after construction.
+ * <p>
+ * Rects and the bottom path are needed for every frame and built right away, the outline and
+ * the text paths are separate groups built on first use, so a heart without shadow, texts or segments
+ * crossing the parts never builds them. The touch map of draggable views is such a group as well.
+ * <p>
+ * The outer text size and offset are part of the key, they make room around the heart and so move it,
+ * changing either obtains another geometry. Views sharing a geometry may still place their outer texts
+ * differently, e.g. one has outer texts and the other doesn't, only the outer text paths are rebuilt for that.
+ */
+final class CordiformGeometry {
+    private final static int CACHE_SIZE = 32;
+
+    private final static LruCache<HeartMetrics.Key, CordiformGeometry> cache = new LruCache<>(CACHE_SIZE);
+
+    final HeartMetrics metrics;
+
+    final RectF leftArcRect = new RectF();
+    final RectF rightArcRect = new RectF();
+    final RectF bottomRect = new RectF();
+
+    //bounds of everything drawn for one part, including stroke caps
+    final Rect leftDamageRect = new Rect();
+    final Rect rightDamageRect = new Rect();
+    final Rect bottomDamageRect = new Rect();
+
+    //right line, bottom arc and left line in the order the bottom progress fills them
+    final Path bottomPath = new Path();
+
+    //lazy groups, guarded by this
+    private Path outlinePath;
+    private RectF outlineBounds;
+    private TextPaths innerTextPaths;
+    private TextPaths outerTextPaths;
+    private HeartTouchMap touchMap;
+
+    /**
+     * Returns the shared geometry for the key, the key itself is not retained.
+     */
+    static CordiformGeometry obtain(HeartMetrics.Key key){
+        CordiformGeometry geometry = cache.get(key);
+        if(geometry == null){
+            HeartMetrics.Key copy = key.copy();
+            geometry = new CordiformGeometry(new HeartMetrics(copy));
+            cache.put(copy, geometry);
+        }
+        return geometry;
+    }
+
+    private CordiformGeometry(HeartMetrics m) {
+        metrics = m;
+        if(m.isEmpty()){
+            return;
+        }
+
+        leftArcRect.set(m.xOffset, m.yOffset, m.sideLength + m.xOffset, m.sideLength + m.yOffset);
+        rightArcRect.set(m.drawableWidth - m.sideLength + m.xOffset, m.yOffset, m.drawableWidth + m.xOffset, m.sideLength + m.yOffset);
+        bottomRect.set(m.bottomArcCx  - m.bottomArcRadius, m.bottomArcCy - m.bottomArcRadius,
+                m.bottomArcCx + m.bottomArcRadius, m.bottomArcCy + m.bottomArcRadius);
+
+        //one extra pixel for anti-aliasing
+        int damageInset = -(m.strokeWidth / 2 + 1);
+        leftArcRect.roundOut(leftDamageRect);
+        leftDamageRect.inset(damageInset, damageInset);
+        rightArcRect.roundOut(rightDamageRect);
+        rightDamageRect.inset(damageInset, damageInset);
+        bottomRect.roundOut(bottomDamageRect);
+        bottomDamageRect.union(m.rightLineStartX, m.rightLineStartY);
+        bottomDamageRect.union(m.leftLineEndX, m.leftLineEndY);
+        bottomDamageRect.inset(damageInset, damageInset);
+
+        bottomPath.moveTo(m.rightLineStartX, m.rightLineStartY);
+        bottomPath.lineTo(m.rightLineEndX, m.rightLineEndY);
+        bottomPath.arcTo(bottomRect, 45, 90);
+        bottomPath.lineTo(m.leftLineEndX, m.leftLineEndY);
+    }
+
+    /**
+     * The whole outline, clockwise from the left end of the left lobe like {@link CordiformSegments}.
+     * The shadow is cast by it and segments running over more than one part are cut from it.
+     */
+    synchronized Path getOutlinePath(){
+        if(outlinePath == null){
+            buildOutlinePath();
+        }
+        return outlinePath;
+    }
+
+    synchronized RectF getOutlineBounds(){
+        if(outlinePath == null){
+            buildOutlinePath();
+        }
+        return outlineBounds;
+    }
+
+    private void buildOutlinePath(){
+        HeartMetrics m = metrics;
+        Path path = new Path();
+        RectF bounds = new RectF();
+        if(!m.isEmpty()){
+            path.moveTo(m.leftLineEndX, m.leftLineEndY);
+            path.arcTo(leftArcRect, 135, 180);
+            path.arcTo(rightArcRect, -135, 180);
+            path.lineTo(m.rightLineEndX, m.rightLineEndY);
+            path.arcTo(bottomRect, 45, 90);
+            path.lineTo(m.leftLineEndX, m.leftLineEndY);
+            path.computeBounds(bounds, false);
+        }
+        outlinePath = path;
+        outlineBounds = bounds;
+    }
+
+    synchronized HeartTouchMap getTouchMap(){
+        if(touchMap == null){
+            touchMap = new HeartTouchMap(metrics);
+        }
+        return touchMap;
+    }
+
+    /**
+     * Paths the inner texts run along, in the middle of the strokes.
+     */
+    synchronized TextPaths getInnerTextPaths(){
+        if(innerTextPaths != null){
+            return innerTextPaths;
+        }
+
+        HeartMetrics m = metrics;
+        TextPaths paths = new TextPaths(0);
+        if(!m.isEmpty()){
+            paths.left.moveTo(m.leftLineEndX, m.leftLineEndY);
+            paths.left.arcTo(leftArcRect, 135, 180);
+
+            paths.right.moveTo(m.rightLineStartX, m.rightLineStartY);
+            paths.right.arcTo(rightArcRect, 45, -180);
+
+            paths.bottom.moveTo(m.leftLineEndX, m.leftLineEndY);
+            paths.bottom.lineTo(m.leftLineStartX, m.leftLineStartY);
+            paths.bottom.arcTo(bottomRect, 135, -90);
+            paths.bottom.lineTo(m.rightLineStartX, m.rightLineStartY);
+        }
+        innerTextPaths = paths;
+        return paths;
+    }
+
+    /**
+     * Paths the outer texts run along, outside of the strokes. Only the paths of the last offset are kept,
+     * views sharing this geometry mostly draw their outer texts with the same one.
+     *
+     * @param offsetWhileDrawing see {@link CordiformPainter#getOuterTextOffsetWhileDrawing(int)}
+     */
+    synchronized TextPaths getOuterTextPaths(float offsetWhileDrawing){
+        if(outerTextPaths != null && outerTextPaths.offset == offsetWhileDrawing){
+            return outerTextPaths;
+        }
+
+        HeartMetrics m = metrics;
+        TextPaths paths = new TextPaths(offsetWhileDrawing);
+        if(!m.isEmpty()){
+            float outerInset = (m.strokeWidth + offsetWhileDrawing) / 2;
+            paths.left.moveTo(m.leftLineEndX - outerInset, m.leftLineEndY - outerInset);
+            RectF textRect = new RectF(leftArcRect);
+            textRect.inset(-outerInset, -outerInset);
+            paths.left.arcTo(textRect, 135, 180);
+
+            paths.right.moveTo(m.drawableWidth / 2 - outerInset + m.xOffset,
+                    m.drawableHeight - SQRT_TWO * m.sideLength - outerInset + m.yOffset);
+            textRect.set(rightArcRect);
+            textRect.inset(-outerInset, -outerInset);
+            paths.right.arcTo(textRect, -135, 180);
+
+            float halfLengthDiagonalLine = SQRT_TWO * m.sideLength / 2;
+            int xMidPointOfRound = (int) (m.sideLength / 2 + SQRT_TWO * m.sideLength / 4 + m.xOffset);
+            int yMidPointOfRound = (int) (m.sideLength / 2 + SQRT_TWO * m.sideLength / 4 + m.yOffset);
+            paths.bottom.moveTo(xMidPointOfRound - halfLengthDiagonalLine - m.strokeWidth /2, yMidPointOfRound);
+            textRect.set(xMidPointOfRound - halfLengthDiagonalLine - m.strokeWidth /2, yMidPointOfRound - halfLengthDiagonalLine - m.strokeWidth /2,
+                    xMidPointOfRound + halfLengthDiagonalLine + m.strokeWidth /2, yMidPointOfRound + halfLengthDiagonalLine + m.strokeWidth /2);
+            paths.bottom.arcTo(textRect, 180, -180, false);
+        }
+        outerTextPaths = paths;
+        return paths;
+    }
+
+    /**
+     * Text paths of the three parts, not modified once returned.
+     */
+    static final class TextPaths {
+        final float offset;
+        final Path left = new Path();
+        final Path right = new Path();
+        final Path bottom = new Path();
+
+        private TextPaths(float offset) {
+            this.offset = offset;
+        }
+    }
+}
@@ -0,0 +1,688 @@
+/*
+ * Copyright 2019 Blake Zheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blakezheng.widget.cordiformview;
+
+import android.graphics.Bitmap;
+import android.graphics.BlurMaskFilter;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.PathMeasure;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.text.TextPaint;
+import android.text.TextUtils;
+
+import static com.blakezheng.widget.cordiformview.CordiformSegments.LEFT_PART_END;
+import static com.blakezheng.widget.cordiformview.CordiformSegments.PART_BOTTOM;
+import static com.blakezheng.widget.cordiformview.CordiformSegments.PART_LEFT;
+import static com.blakezheng.widget.cordiformview.CordiformSegments.PART_RIGHT;
+import static com.blakezheng.widget.cordiformview.CordiformSegments.RIGHT_PART_END;
+import static com.blakezheng.widget.cordiformview.HeartMetrics.FULL_PROGRESS;
+import static com.blakezheng.widget.cordiformview.HeartMetrics.TEXT_HEIGHT_SCALE;
+
+/**
+ * Paints, text layouts and draw calls of a heart, shared by {@link CordiformView} and {@link CordiformDrawable}.
+ * Its owner decides the geometry and what to draw when, nothing here invalidates.
+ */
+final class CordiformPainter {
+    //every painter copies its paints from these instead of configuring them again
+    private final static Paint SEGMENT_PAINT = new Paint();
+    private final static Paint SHADOW_PAINT = new Paint();
+    private final static TextPaint OUTER_TEXT_PAINT = new TextPaint();
+    private final static TextPaint INNER_TEXT_PAINT = new TextPaint();
+    private final static float INNER_TEXT_V_OFFSET;
+
+    static {
+        SEGMENT_PAINT.setAntiAlias(true);
+        SEGMENT_PAINT.setDither(true);
+        SEGMENT_PAINT.setStyle(Paint.Style.STROKE);
+        SEGMENT_PAINT.setStrokeCap(Paint.Cap.ROUND);
+        SEGMENT_PAINT.setStrokeJoin(Paint.Join.ROUND);
+
+        SHADOW_PAINT.setStrokeJoin(Paint.Join.ROUND);
+        SHADOW_PAINT.setStyle(Paint.Style.STROKE);
+        SHADOW_PAINT.setColor(Color.GRAY);
+        SHADOW_PAINT.setAntiAlias(true);
+
+        OUTER_TEXT_PAINT.setAntiAlias(true);
+        OUTER_TEXT_PAINT.setColor(Color.BLACK);
+        OUTER_TEXT_PAINT.setTextAlign(Paint.Align.CENTER);
+        INNER_TEXT_PAINT.setAntiAlias(true);
+        INNER_TEXT_PAINT.setTextAlign(Paint.Align.RIGHT);
+        INNER_TEXT_V_OFFSET = calTextVOffset(INNER_TEXT_PAINT, new Paint.FontMetrics());
+    }
+
+    int leftArcColor;
+    int rightArcColor;
+    int bottomLineColor;
+
+    CordiformSegments segments = CordiformSegments.threeParts();
+    //the first three are leftArcColor, rightArcColor and bottomLineColor, one paint draws all segments
+    private final int[] segmentColors = new int[CordiformSegments.MAX_COUNT];
+    private final int[] segmentBgColors = new int[CordiformSegments.MAX_COUNT];
+
+    int shadowColor;
+    int shadowRadius;
+    int shadowDx;
+    int shadowDy;
+
+    String leftInnerText;
+    String rightInnerText;
+    String bottomInnerText;
+    String leftOuterText;
+    String rightOuterText;
+    String bottomOuterText;
+
+    int innerTextColor;
+    float innerTextSize;
+    //inner texts too long for their part shrink down to this size before they are ellipsized, 0 to only ellipsize
+    float minInnerTextSize;
+    float outerTextSize;
+
+    private CordiformGeometry geometry;
+
+    //draws the progress and the remaining background of all segments
+    private Paint segmentPaint;
+
+    //measure CordiformGeometry#bottomPath and the outline, PathMeasure isn't safe to share with other painters
+    private PathMeasure bottomPathMeasure;
+    private float bottomLength;
+    private PathMeasure outlineMeasure;
+    //outline length per length of the parts in HeartMetrics, negative until the outline is measured
+    private float outlineScale = -1;
+    private Path segmentPath;
+
+    //for shadow layers, only created if the shadow isn't baked
+    private Paint shadowPaint;
+    //the blurred shadow as alpha mask, tinted with shadowColor while blitted
+    private Bitmap shadowBitmap;
+    private final Rect shadowBitmapBounds = new Rect();
+    private Paint shadowBitmapPaint;
+    private boolean shadowBitmapDirty = true;
+    //bumped whenever the shadow has to be baked again, results of older bakes are dropped
+    private int shadowGeneration;
+    private boolean shadowBaking;
+
+    private Paint outerTextPaint;
+    private Paint innerTextPaint;
+
+    //cached metrics, the draw path must not allocate
+    private Paint.FontMetrics fontMetrics;
+    private float innerTextVOffset;
+
+    private PathTextLayout leftInnerTextLayout;
+    private PathTextLayout rightInnerTextLayout;
+    private PathTextLayout bottomInnerTextLayout;
+    private PathTextLayout leftOuterTextLayout;
+    private PathTextLayout rightOuterTextLayout;
+    private PathTextLayout bottomOuterTextLayout;
+    //the inner and outer texts are laid out independently
+    private boolean innerTextLayoutDirty = true;
+    private boolean outerTextLayoutDirty = true;
+    private CordiformGeometry.TextPaths outerTextPaths;
+
+    CordiformPainter(int leftArcColor, int rightArcColor, int bottomLineColor, int shadowColor, int innerTextColor) {
+        this(shadowColor, innerTextColor);
+        this.leftArcColor = leftArcColor;
+        this.rightArcColor = rightArcColor;
+        this.bottomLineColor = bottomLineColor;
+        //segments past the first three repeat the colors of the parts until they are given their own
+        for(int i = 0; i < CordiformSegments.MAX_COUNT; i++){
+            setSegmentColor(i, i % 3 == 0 ? leftArcColor : i % 3 == 1 ? rightArcColor : bottomLineColor);
+        }
+    }
+
+    /**
+     * A painter with the colors of a shared style, they are computed once per style.
+     */
+    CordiformPainter(CordiformStyle style) {
+        this(style.shadowColor, style.innerTextColor);
+        leftArcColor = style.leftArcColor;
+        rightArcColor = style.rightArcColor;
+        bottomLineColor = style.bottomLineColor;
+        System.arraycopy(style.segmentColors, 0, segmentColors, 0, CordiformSegments.MAX_COUNT);
+        System.arraycopy(style.segmentBgColors, 0, segmentBgColors, 0, CordiformSegments.MAX_COUNT);
+    }
+
+    private CordiformPainter(int shadowColor, int innerTextColor) {
+        this.shadowColor = shadowColor;
+        this.innerTextColor = innerTextColor;
+
+        fontMetrics = new Paint.FontMetrics();
+        segmentPaint = new Paint(SEGMENT_PAINT);
+        bottomPathMeasure = new PathMeasure();
+        outlineMeasure = new PathMeasure();
+        segmentPath = new Path();
+
+        shadowBitmapPaint = new Paint();
+        shadowBitmapPaint.setColor(shadowColor);
+
+        outerTextPaint = new TextPaint(OUTER_TEXT_PAINT);
+        innerTextPaint = new TextPaint(INNER_TEXT_PAINT);
+        innerTextPaint.setColor(innerTextColor);
+        innerTextVOffset = INNER_TEXT_V_OFFSET;
+
+        leftInnerTextLayout = new PathTextLayout();
+        rightInnerTextLayout = new PathTextLayout();
+        bottomInnerTextLayout = new PathTextLayout();
+        leftOuterTextLayout = new PathTextLayout();
+        rightOuterTextLayout = new PathTextLayout();
+        bottomOuterTextLayout = new PathTextLayout();
+    }
+
+    CordiformGeometry getGeometry() {
+        return geometry;
+    }
+
+    /**
+     * @return false if there is nothing to draw
+     */
+    boolean hasGeometry() {
+        return geometry != null && !geometry.metrics.isEmpty();
+    }
+
+    int getStrokeWidth() {
+        return geometry != null ? geometry.metrics.strokeWidth : 0;
+    }
+
+    /**
+     * @return true if the geometry changed
+     */
+    boolean setGeometry(CordiformGeometry geometry) {
+        if(this.geometry == geometry){
+            return false;
+        }
+        if(this.geometry == null || this.geometry.metrics.strokeWidth != geometry.metrics.strokeWidth){
+            setStrokeWidth(geometry.metrics.strokeWidth);
+        }
+        this.geometry = geometry;
+        bottomPathMeasure.setPath(geometry.bottomPath, false);
+        bottomLength = bottomPathMeasure.getLength();
+        outlineScale = -1;
+        releaseShadow();
+        innerTextLayoutDirty = true;
+        outerTextLayoutDirty = true;
+        return true;
+    }
+
+    private void setStrokeWidth(int strokeWidth){
+        segmentPaint.setStrokeWidth(strokeWidth);
+        if(shadowPaint != null){
+            shadowPaint.setStrokeWidth(strokeWidth);
+        }
+    }
+
+    void setLeftArcColor(int leftArcColor) {
+        setSegmentColor(0, leftArcColor);
+    }
+
+    void setRightArcColor(int rightArcColor) {
+        setSegmentColor(1, rightArcColor);
+    }
+
+    void setBottomLineColor(int bottomLineColor) {
+        setSegmentColor(2, bottomLineColor);
+    }
+
+    void setSegments(CordiformSegments segments) {
+        this.segments = segments;
+    }
+
+    int getSegmentColor(int segment) {
+        return segmentColors[segment];
+    }
+
+    void setSegmentColor(int segment, int color) {
+        segmentColors[segment] = color;
+        segmentBgColors[segment] = HeartColors.parseToDarkColor(color);
+        if(segment == 0){
+            leftArcColor = color;
+        }else if(segment == 1){
+            rightArcColor = color;
+        }else if(segment == 2){
+            bottomLineColor = color;
+        }
+    }
+
+    void setShadow(int radius, int dx, int dy, int color) {
+        if(shadowRadius != radius || shadowDx != dx || shadowDy != dy){
+            shadowRadius = radius;
+            shadowDx = dx;
+            shadowDy = dy;
+            releaseShadow();
+        }
+        shadowColor = color;
+        if(shadowPaint != null){
+            setShadowLayer(shadowPaint);
+        }
+        shadowBitmapPaint.setColor(color);
+    }
+
+    void setInnerTexts(String left, String right, String bottom) {
+        if(TextUtils.equals(leftInnerText, left)
+                && TextUtils.equals(rightInnerText, right)
+                && TextUtils.equals(bottomInnerText, bottom)){
+            return;
+        }
+        leftInnerText = left;
+        rightInnerText = right;
+        bottomInnerText = bottom;
+        innerTextLayoutDirty = true;
+    }
+
+    void setOuterTexts(String left, String right, String bottom) {
+        if(TextUtils.equals(leftOuterText, left)
+                && TextUtils.equals(rightOuterText, right)
+                && TextUtils.equals(bottomOuterText, bottom)){
+            return;
+        }
+        leftOuterText = left;
+        rightOuterText = right;
+        bottomOuterText = bottom;
+        outerTextLayoutDirty = true;
+    }
+
+    void setInnerTextColor(int innerTextColor) {
+        this.innerTextColor = innerTextColor;
+        innerTextPaint.setColor(innerTextColor);
+    }
+
+    void setInnerTextSize(float innerTextSize) {
+        if(this.innerTextSize == innerTextSize){
+            return;
+        }
+        this.innerTextSize = innerTextSize;
+        innerTextLayoutDirty = true;
+    }
+
+    void setMinInnerTextSize(float minInnerTextSize) {
+        if(this.minInnerTextSize == minInnerTextSize){
+            return;
+        }
+        this.minInnerTextSize = minInnerTextSize;
+        innerTextLayoutDirty = true;
+    }
+
+    void setOuterTextSize(float outerTextSize) {
+        if(this.outerTextSize == outerTextSize){
+            return;
+        }
+        this.outerTextSize = outerTextSize;
+        outerTextPaint.setTextSize(outerTextSize);
+        outerTextLayoutDirty = true;
+    }
+
+    boolean hasOuterTexts() {
+        return !TextUtils.isEmpty(leftOuterText)
+                || !TextUtils.isEmpty(rightOuterText)
+                || !TextUtils.isEmpty(bottomOuterText);
+    }
+
+    /**
+     * Distance of the outer texts from the strokes, picks the outer text paths of the geometry.
+     */
+    float getOuterTextOffsetWhileDrawing(int outerTextOffset) {
+        if(hasOuterTexts()){
+            return outerTextSize * TEXT_HEIGHT_SCALE + outerTextOffset;
+        }
+        return 0;
+    }
+
+    void setColorFilter(ColorFilter colorFilter) {
+        segmentPaint.setColorFilter(colorFilter);
+        if(shadowPaint != null){
+            shadowPaint.setColorFilter(colorFilter);
+        }
+        shadowBitmapPaint.setColorFilter(colorFilter);
+        outerTextPaint.setColorFilter(colorFilter);
+        innerTextPaint.setColorFilter(colorFilter);
+    }
+
+    /**
+     * Glyphs of all six texts are placed along their paths here once, drawing them afterwards
+     * neither measures the paths nor shapes the texts again. Inner and outer texts are only laid out again
+     * if something of them changed, text paths of the geometry are only requested for non-empty texts.
+     * Inner texts are fitted into their parts, see {@link PathTextLayout#layoutFitted}.
+     *
+     * @return true if the texts were laid out again, so anything they were recorded into is stale
+     */
+    boolean layoutTextsIfNeeded(){
+        CordiformGeometry g = geometry;
+        float outerTextOffsetWhileDrawing = getOuterTextOffsetWhileDrawing(g.metrics.key.outerTextOffset);
+        if(outerTextPaths != null && outerTextPaths.offset != outerTextOffsetWhileDrawing){
+            outerTextLayoutDirty = true;
+        }
+        if(!innerTextLayoutDirty && !outerTextLayoutDirty){
+            return false;
+        }
+
+        if(innerTextLayoutDirty){
+            innerTextLayoutDirty = false;
+            layoutInnerTexts(g);
+        }
+        if(outerTextLayoutDirty){
+            outerTextLayoutDirty = false;
+            outerTextPaths = hasOuterTexts() ? g.getOuterTextPaths(outerTextOffsetWhileDrawing) : null;
+            CordiformGeometry.TextPaths paths = outerTextPaths;
+            //measured with the size the texts are actually laid out with
+            float outerTextVOffset = calTextVOffset(outerTextPaint);
+            bottomOuterTextLayout.layout(bottomOuterText, paths != null ? paths.bottom : null, 0, outerTextVOffset, outerTextPaint);
+            rightOuterTextLayout.layout(rightOuterText, paths != null ? paths.right : null, 0, outerTextVOffset, outerTextPaint);
+            leftOuterTextLayout.layout(leftOuterText, paths != null ? paths.left : null, 0, outerTextVOffset, outerTextPaint);
+        }
+        return true;
+    }
+
+    private void layoutInnerTexts(CordiformGeometry g){
+        int strokeWidth = g.metrics.strokeWidth;
+
+        //height of innerText must smaller than stroke width
+        float actualInnerTextSize = innerTextSize;
+        if(actualInnerTextSize > strokeWidth / TEXT_HEIGHT_SCALE){
+            actualInnerTextSize = strokeWidth / TEXT_HEIGHT_SCALE;
+        }else if(actualInnerTextSize <= 0){
+            actualInnerTextSize = strokeWidth / TEXT_HEIGHT_SCALE / 1.5f;
+        }
+        if(innerTextPaint.getTextSize() != actualInnerTextSize){
+            innerTextPaint.setTextSize(actualInnerTextSize);
+            innerTextVOffset = calTextVOffset(innerTextPaint);
+        }
+
+        boolean hasInnerTexts = !TextUtils.isEmpty(leftInnerText)
+                || !TextUtils.isEmpty(rightInnerText)
+                || !TextUtils.isEmpty(bottomInnerText);
+        CordiformGeometry.TextPaths paths = hasInnerTexts ? g.getInnerTextPaths() : null;
+        float minTextSize = minInnerTextSize > 0 ? Math.min(minInnerTextSize, actualInnerTextSize) : actualInnerTextSize;
+        innerTextPaint.setTextAlign(Paint.Align.RIGHT);
+        leftInnerTextLayout.layoutFitted(leftInnerText, paths != null ? paths.left : null, 0, innerTextVOffset, innerTextPaint, minTextSize);
+        //for text to be more readable
+        innerTextPaint.setTextAlign(Paint.Align.LEFT);
+        rightInnerTextLayout.layoutFitted(rightInnerText, paths != null ? paths.right : null, 1, innerTextVOffset, innerTextPaint, minTextSize);
+        bottomInnerTextLayout.layoutFitted(bottomInnerText, paths != null ? paths.bottom : null, 0, innerTextVOffset, innerTextPaint, minTextSize);
+    }
+
+    /**
+     * Shadow and outer texts, then what is left of the background of all segments, their progress and inner texts.
+     *
+     * @param progress of each segment
+     * @param bakeShadow see {@link #drawShadow(Canvas, boolean)}
+     */
+    void draw(Canvas canvas, float[] progress, boolean bakeShadow){
+        layoutTextsIfNeeded();
+        drawShadow(canvas, bakeShadow);
+        drawOuterTexts(canvas);
+        int allParts = PART_LEFT | PART_RIGHT | PART_BOTTOM;
+        drawRemaining(canvas, progress, allParts);
+        drawProgress(canvas, progress, allParts);
+        drawLeftInnerText(canvas);
+        drawRightInnerText(canvas);
+        drawBottomInnerText(canvas);
+    }
+
+    /**
+     * @param bake blur the shadow into a bitmap on this thread if it isn't baked yet and blit it,
+     *             for canvases that can't draw shadow layers
+     */
+    void drawShadow(Canvas canvas, boolean bake){
+        if(!bake){
+            if(shadowRadius > 0){
+                canvas.drawPath(geometry.getOutlinePath(), getShadowPaint());
+            }
+            return;
+        }
+
+        if(shadowBitmapDirty){
+            setShadowBitmap(bakeShadow(geometry, shadowRadius, shadowDx, shadowDy), shadowGeneration);
+        }
+        drawBakedShadow(canvas);
+    }
+
+    private Paint getShadowPaint(){
+        if(shadowPaint == null){
+            shadowPaint = new Paint(SHADOW_PAINT);
+            shadowPaint.setStrokeWidth(getStrokeWidth());
+            shadowPaint.setColorFilter(segmentPaint.getColorFilter());
+            setShadowLayer(shadowPaint);
+        }
+        return shadowPaint;
+    }
+
+    private void setShadowLayer(Paint paint){
+        if(shadowRadius > 0){
+            paint.setShadowLayer(shadowRadius, shadowDx, shadowDy, shadowColor);
+        }else{
+            paint.clearShadowLayer();
+        }
+    }
+
+    /**
+     * Blit the baked shadow, draws nothing until {@link #setShadowBitmap(Bitmap, int)} is called.
+     */
+    void drawBakedShadow(Canvas canvas){
+        if(shadowBitmap != null){
+            canvas.drawBitmap(shadowBitmap, shadowBitmapBounds.left, shadowBitmapBounds.top, shadowBitmapPaint);
+        }
+    }
+
+    /**
+     * @return true if the shadow has to be baked and no bake is running
+     */
+    boolean needsShadowBake(){
+        return shadowBitmapDirty && !shadowBaking;
+    }
+
+    /**
+     * Mark a bake of the current geometry and shadow as running.
+     *
+     * @return the generation to hand to {@link #setShadowBitmap(Bitmap, int)} with its result
+     */
+    int beginShadowBake(){
+        shadowBaking = true;
+        return shadowGeneration;
+    }
+
+    /**
+     * @param bitmap {@link #bakeShadow} of the geometry and shadow of {@code generation}
+     * @return false if the geometry or shadow changed since, the bitmap is dropped then
+     */
+    boolean setShadowBitmap(Bitmap bitmap, int generation){
+        if(generation != shadowGeneration){
+            return false;
+        }
+        shadowBitmap = bitmap;
+        shadowBitmapDirty = false;
+        shadowBaking = false;
+        if(bitmap != null){
+            shadowBounds(geometry, shadowRadius, shadowDx, shadowDy, shadowBitmapBounds);
+        }
+        return true;
+    }
+
+    /**
+     * Drop the baked shadow and any running bake, it has to be baked again before it is drawn.
+     */
+    void releaseShadow(){
+        shadowBitmap = null;
+        shadowBitmapDirty = true;
+        shadowBaking = false;
+        shadowGeneration++;
+    }
+
+    /**
+     * Blur the shadow of the geometry into an alpha mask covering {@link #shadowBounds}. Uses nothing
+     * but its arguments, so any thread may call it.
+     *
+     * @return null if there is no shadow
+     */
+    static Bitmap bakeShadow(CordiformGeometry geometry, int radius, int dx, int dy){
+        if(radius <= 0 || geometry.metrics.isEmpty()){
+            return null;
+        }
+        Rect bounds = new Rect();
+        shadowBounds(geometry, radius, dx, dy, bounds);
+        if(bounds.isEmpty()){
+            return null;
+        }
+
+        //same blur as a shadow layer of that radius, but without the stroke itself which the parts cover anyway
+        Paint paint = new Paint();
+        paint.setAntiAlias(true);
+        paint.setStyle(Paint.Style.STROKE);
+        paint.setStrokeJoin(Paint.Join.ROUND);
+        paint.setStrokeWidth(geometry.metrics.strokeWidth);
+        paint.setMaskFilter(new BlurMaskFilter(radius, BlurMaskFilter.Blur.NORMAL));
+
+        Bitmap bitmap = Bitmap.createBitmap(bounds.width(), bounds.height(), Bitmap.Config.ALPHA_8);
+        Canvas canvas = new Canvas(bitmap);
+        canvas.translate(dx - bounds.left, dy - bounds.top);
+        canvas.drawPath(geometry.getOutlinePath(), paint);
+        return bitmap;
+    }
+
+    /**
+     * Bounds of the blurred shadow clipped to the size of the geometry.
+     */
+    private static void shadowBounds(CordiformGeometry geometry, int radius, int dx, int dy, Rect out){
+        RectF pathBounds = new RectF(geometry.getOutlineBounds());
+        //blur reaches about 1.73 * radius, see SkBlurMask::ConvertRadiusToSigma
+        float outset = geometry.metrics.strokeWidth / 2f + 2 * radius + 1;
+        pathBounds.inset(-outset, -outset);
+        pathBounds.offset(dx, dy);
+        pathBounds.roundOut(out);
+        if(!out.intersect(0, 0, geometry.metrics.key.width, geometry.metrics.key.height)){
+            out.setEmpty();
+        }
+    }
+
+    void drawOuterTexts(Canvas canvas){
+        outerTextPaint.setColor(bottomLineColor);
+        bottomOuterTextLayout.draw(canvas, outerTextPaint);
+        outerTextPaint.setColor(rightArcColor);
+        rightOuterTextLayout.draw(canvas, outerTextPaint);
+        outerTextPaint.setColor(leftArcColor);
+        leftOuterTextLayout.draw(canvas, outerTextPaint);
+    }
+
+    /*
+     * Each segment is drawn in two strokes that meet where the progress ends, the background only
+     * from there to the end, so no pixel of a segment is stroked twice. All remaining backgrounds have to be
+     * drawn before any progress, the round caps of a progress then cover the caps of the backgrounds
+     * next to them, as if the full backgrounds were below.
+     */
+
+    /**
+     * Backgrounds of the segments from where their progress ends, one loop over the segment table.
+     *
+     * @param visibleParts PART_* of the parts to draw, segments running along none of them are skipped
+     */
+    void drawRemaining(Canvas canvas, float[] progress, int visibleParts){
+        CordiformSegments s = segments;
+        //from the end of the outline, the bottom first like it always was
+        for(int i = s.count - 1; i >= 0; i--){
+            float ratio = progress[i] / FULL_PROGRESS;
+            if((s.parts[i] & visibleParts) != 0 && ratio < 1){
+                float start = s.bounds[i];
+                float end = s.bounds[i + 1];
+                segmentPaint.setColor(segmentBgColors[i]);
+                drawOutline(canvas, s.parts[i], start + (end - start) * ratio, end, segmentPaint);
+            }
+        }
+    }
+
+    /**
+     * @see #drawRemaining(Canvas, float[], int)
+     */
+    void drawProgress(Canvas canvas, float[] progress, int visibleParts){
+        CordiformSegments s = segments;
+        for(int i = s.count - 1; i >= 0; i--){
+            float ratio = progress[i] / FULL_PROGRESS;
+            if((s.parts[i] & visibleParts) != 0 && ratio > 0){
+                float start = s.bounds[i];
+                float end = ratio < 1 ? start + (s.bounds[i + 1] - start) * ratio : s.bounds[i + 1];
+                segmentPaint.setColor(segmentColors[i]);
+                drawOutline(canvas, s.parts[i], start, end, segmentPaint);
+            }
+        }
+    }
+
+    /**
+     * Stroke the outline between two fractions of it. Within a lobe that is an arc, within the bottom
+     * a piece of the bottom path and only across parts a piece of the whole outline.
+     *
+     * @param parts PART_* the fractions lie in
+     */
+    private void drawOutline(Canvas canvas, int parts, float from, float to, Paint paint){
+        CordiformGeometry g = geometry;
+        if(parts == PART_LEFT){
+            canvas.drawArc(g.leftArcRect, 135 + 180 * from / LEFT_PART_END, 180 * (to - from) / LEFT_PART_END, false, paint);
+        }else if(parts == PART_RIGHT){
+            float length = RIGHT_PART_END - LEFT_PART_END;
+            canvas.drawArc(g.rightArcRect, -135 + 180 * (from - LEFT_PART_END) / length, 180 * (to - from) / length, false, paint);
+        }else if(parts == PART_BOTTOM){
+            float scale = bottomLength / (1 - RIGHT_PART_END);
+            canvas.drawPath(segment(bottomPathMeasure, (from - RIGHT_PART_END) * scale, (to - RIGHT_PART_END) * scale), paint);
+        }else{
+            if(outlineScale < 0){
+                HeartMetrics m = g.metrics;
+                outlineMeasure.setPath(g.getOutlinePath(), false);
+                outlineScale = outlineMeasure.getLength() / (2 * m.arcPartLength + m.bottomPartLength);
+            }
+            canvas.drawPath(segment(outlineMeasure, outlineDistance(from), outlineDistance(to)), paint);
+        }
+    }
+
+    /**
+     * @see HeartMetrics#outlineDistance(float), scaled to the length of the measured outline path
+     */
+    private float outlineDistance(float fraction){
+        return geometry.metrics.outlineDistance(fraction) * outlineScale;
+    }
+
+    /**
+     * @return part of the measured path between the two distances, valid until the next call
+     */
+    private Path segment(PathMeasure measure, float startDistance, float stopDistance){
+        segmentPath.reset();
+        measure.getSegment(startDistance, stopDistance, segmentPath, true);
+        //KitKat and earlier don't draw a bare segment on hardware canvases, one more operation fixes it
+        segmentPath.rLineTo(0, 0);
+        return segmentPath;
+    }
+
+    void drawLeftInnerText(Canvas canvas){
+        leftInnerTextLayout.draw(canvas, innerTextPaint);
+    }
+
+    void drawRightInnerText(Canvas canvas){
+        rightInnerTextLayout.draw(canvas, innerTextPaint);
+    }
+
+    void drawBottomInnerText(Canvas canvas){
+        bottomInnerTextLayout.draw(canvas, innerTextPaint);
+    }
+
+    private float calTextVOffset(Paint textPaint){
+        return calTextVOffset(textPaint, fontMetrics);
+    }
+
+    private static float calTextVOffset(Paint textPaint, Paint.FontMetrics fontMetrics){
+        textPaint.getFontMetrics(fontMetrics);
+        return (fontMetrics.bottom - fontMetrics.top)/2 - fontMetrics.bottom;
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2019 Blake Zheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blakezheng.widget.cordiformview;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+
+/**
+ * Renders hearts offscreen, the output is the same as of a {@link CordiformView} of the renderer's size
+ * without paddings on a software layer, its shadow included: like the view, each thread blurs the shadow
+ * once into a bitmap and blits it until the geometry or the shadow changes. Any thread may call it, each
+ * thread renders with its own paints, text layouts and shadow while geometry is shared through the same
+ * cache as the views.
+ */
+public final class CordiformRenderer {
+    private final int width;
+    private final int height;
+
+    private final ThreadLocal<CordiformDrawable> drawables = new ThreadLocal<CordiformDrawable>() {
+        @Override
+        protected CordiformDrawable initialValue() {
+            CordiformDrawable drawable = new CordiformDrawable();
+            drawable.setBounds(0, 0, width, height);
+            drawable.setBakeShadow(true);
+            return drawable;
+        }
+    };
+
+    public CordiformRenderer(int width, int height) {
+        if(width <= 0 || height <= 0){
+            throw new IllegalArgumentException("size must be positive: " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Draw the heart into the top left {@link #getWidth()} x {@link #getHeight()} pixels of the canvas.
+     */
+    public void render(Canvas canvas, CordiformState state) {
+        CordiformDrawable drawable = drawables.get();
+        drawable.bind(state);
+        drawable.draw(canvas);
+    }
+
+    /**
+     * Clear the bitmap and draw the heart into it.
+     */
+    public void render(Bitmap bitmap, CordiformState state) {
+        bitmap.eraseColor(Color.TRANSPARENT);
+        render(new Canvas(bitmap), state);
+    }
+
+    /**
+     * @return a new ARGB_8888 bitmap of the renderer's size showing the heart
+     */
+    public Bitmap render(CordiformState state) {
+        Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        render(new Canvas(bitmap), state);
+        return bitmap;
+    }
+
+    /**
+     * Render all states in parallel, the list is split into one chunk per available core and each chunk
+     * is rendered by one task on {@code executor}. Blocks until all bitmaps are done, so don't call it
+     * from a thread of that executor.
+     *
+     * @return bitmaps in the order of {@code states}
+     * @throws RuntimeException the first exception thrown by a task
+     * @throws Error the first error thrown by a task, e.g. when a bitmap runs out of memory
+     */
+    public List<Bitmap> renderBatch(final List<CordiformState> states, Executor executor) throws InterruptedException {
+        final int count = states.size();
+        final Bitmap[] bitmaps = new Bitmap[count];
+        if(count == 0){
+            return new ArrayList<>();
+        }
+
+        int chunks = Math.min(count, Runtime.getRuntime().availableProcessors());
+        final int chunkSize = (count + chunks - 1) / chunks;
+        chunks = (count + chunkSize - 1) / chunkSize;
+        final CountDownLatch latch = new CountDownLatch(chunks);
+        final Throwable[] failure = new Throwable[1];
+        for(int i = 0; i < chunks; i++){
+            final int from = i * chunkSize;
+            final int to = Math.min(from + chunkSize, count);
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for(int j = from; j < to; j++){
+                            bitmaps[j] = render(states.get(j));
+                        }
+                    } catch (Throwable e) {
+                        //errors too, the batch fails instead of returning missing bitmaps
+                        synchronized (failure) {
+                            if(failure[0] == null){
+                                failure[0] = e;
+                            }
+                        }
+                    } finally {
+                        latch.countDown();
+                    }
+                }
+            });
+        }
+        latch.await();
+
+        synchronized (failure) {
+            if(failure[0] instanceof Error){
+                throw (Error) failure[0];
+            }
+            if(failure[0] != null){
+                throw (RuntimeException) failure[0];
+            }
+        }
+        return Arrays.asList(bitmaps);
+    }
+}
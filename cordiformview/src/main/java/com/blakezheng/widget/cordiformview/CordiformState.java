@@ -0,0 +1,308 @@
+/*
+ * Copyright 2019 Blake Zheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blakezheng.widget.cordiformview;
+
+import android.graphics.Color;
+import android.text.TextUtils;
+
+/**
+ * Everything shown by a heart, typically kept per item of a list and applied with
+ * {@link CordiformView#bind(CordiformState)}. Sizes are in pixels.
+ */
+public final class CordiformState {
+    //same as R.color.default_*, resources aren't available without a context
+    private final static int DEFAULT_LEFT_ARC_COLOR = 0xffff4abf;
+    private final static int DEFAULT_RIGHT_ARC_COLOR = 0xff7ef953;
+    private final static int DEFAULT_BOTTOM_LINE_COLOR = 0xff2076ff;
+
+    private float leftProgress;
+    private float rightProgress;
+    private float bottomProgress;
+
+    private int leftArcColor = DEFAULT_LEFT_ARC_COLOR;
+    private int rightArcColor = DEFAULT_RIGHT_ARC_COLOR;
+    private int bottomLineColor = DEFAULT_BOTTOM_LINE_COLOR;
+
+    private String leftInnerText;
+    private String rightInnerText;
+    private String bottomInnerText;
+    private String leftOuterText;
+    private String rightOuterText;
+    private String bottomOuterText;
+
+    private int innerTextColor = Color.BLACK;
+    private float innerTextSize;
+    private float minInnerTextSize;
+    private float outerTextSize;
+    private int outerTextOffset;
+
+    private int strokeWidth;
+
+    private int shadowRadius;
+    private int shadowDx;
+    private int shadowDy;
+    private int shadowColor = Color.GRAY;
+
+    public CordiformState() {
+    }
+
+    public CordiformState(CordiformState other) {
+        set(other);
+    }
+
+    public CordiformState set(CordiformState other) {
+        leftProgress = other.leftProgress;
+        rightProgress = other.rightProgress;
+        bottomProgress = other.bottomProgress;
+        leftArcColor = other.leftArcColor;
+        rightArcColor = other.rightArcColor;
+        bottomLineColor = other.bottomLineColor;
+        leftInnerText = other.leftInnerText;
+        rightInnerText = other.rightInnerText;
+        bottomInnerText = other.bottomInnerText;
+        leftOuterText = other.leftOuterText;
+        rightOuterText = other.rightOuterText;
+        bottomOuterText = other.bottomOuterText;
+        innerTextColor = other.innerTextColor;
+        innerTextSize = other.innerTextSize;
+        minInnerTextSize = other.minInnerTextSize;
+        outerTextSize = other.outerTextSize;
+        outerTextOffset = other.outerTextOffset;
+        strokeWidth = other.strokeWidth;
+        shadowRadius = other.shadowRadius;
+        shadowDx = other.shadowDx;
+        shadowDy = other.shadowDy;
+        shadowColor = other.shadowColor;
+        return this;
+    }
+
+    /**
+     * Percents, clamped to [0, 100] when applied.
+     */
+    public CordiformState setProgress(float left, float right, float bottom) {
+        leftProgress = left;
+        rightProgress = right;
+        bottomProgress = bottom;
+        return this;
+    }
+
+    public CordiformState setColors(int leftArcColor, int rightArcColor, int bottomLineColor) {
+        this.leftArcColor = leftArcColor;
+        this.rightArcColor = rightArcColor;
+        this.bottomLineColor = bottomLineColor;
+        return this;
+    }
+
+    public CordiformState setInnerTexts(String left, String right, String bottom) {
+        leftInnerText = left;
+        rightInnerText = right;
+        bottomInnerText = bottom;
+        return this;
+    }
+
+    public CordiformState setOuterTexts(String left, String right, String bottom) {
+        leftOuterText = left;
+        rightOuterText = right;
+        bottomOuterText = bottom;
+        return this;
+    }
+
+    public CordiformState setInnerTextColor(int innerTextColor) {
+        this.innerTextColor = innerTextColor;
+        return this;
+    }
+
+    public CordiformState setInnerTextSize(float innerTextSize) {
+        this.innerTextSize = innerTextSize;
+        return this;
+    }
+
+    public CordiformState setMinInnerTextSize(float minInnerTextSize) {
+        this.minInnerTextSize = minInnerTextSize;
+        return this;
+    }
+
+    public CordiformState setOuterTextSize(float outerTextSize) {
+        this.outerTextSize = outerTextSize;
+        return this;
+    }
+
+    public CordiformState setOuterTextOffset(int outerTextOffset) {
+        this.outerTextOffset = outerTextOffset;
+        return this;
+    }
+
+    public CordiformState setStrokeWidth(int strokeWidth) {
+        this.strokeWidth = strokeWidth;
+        return this;
+    }
+
+    public CordiformState setShadow(int radius, int dx, int dy, int color) {
+        shadowRadius = radius;
+        shadowDx = dx;
+        shadowDy = dy;
+        shadowColor = color;
+        return this;
+    }
+
+    public float getLeftProgress() {
+        return leftProgress;
+    }
+
+    public float getRightProgress() {
+        return rightProgress;
+    }
+
+    public float getBottomProgress() {
+        return bottomProgress;
+    }
+
+    public int getLeftArcColor() {
+        return leftArcColor;
+    }
+
+    public int getRightArcColor() {
+        return rightArcColor;
+    }
+
+    public int getBottomLineColor() {
+        return bottomLineColor;
+    }
+
+    public String getLeftInnerText() {
+        return leftInnerText;
+    }
+
+    public String getRightInnerText() {
+        return rightInnerText;
+    }
+
+    public String getBottomInnerText() {
+        return bottomInnerText;
+    }
+
+    public String getLeftOuterText() {
+        return leftOuterText;
+    }
+
+    public String getRightOuterText() {
+        return rightOuterText;
+    }
+
+    public String getBottomOuterText() {
+        return bottomOuterText;
+    }
+
+    public int getInnerTextColor() {
+        return innerTextColor;
+    }
+
+    public float getInnerTextSize() {
+        return innerTextSize;
+    }
+
+    public float getMinInnerTextSize() {
+        return minInnerTextSize;
+    }
+
+    public float getOuterTextSize() {
+        return outerTextSize;
+    }
+
+    public int getOuterTextOffset() {
+        return outerTextOffset;
+    }
+
+    public int getStrokeWidth() {
+        return strokeWidth;
+    }
+
+    public int getShadowRadius() {
+        return shadowRadius;
+    }
+
+    public int getShadowDx() {
+        return shadowDx;
+    }
+
+    public int getShadowDy() {
+        return shadowDy;
+    }
+
+    public int getShadowColor() {
+        return shadowColor;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if(this == o){
+            return true;
+        }
+        if(!(o instanceof CordiformState)){
+            return false;
+        }
+        CordiformState state = (CordiformState) o;
+        return Float.compare(leftProgress, state.leftProgress) == 0
+                && Float.compare(rightProgress, state.rightProgress) == 0
+                && Float.compare(bottomProgress, state.bottomProgress) == 0
+                && leftArcColor == state.leftArcColor
+                && rightArcColor == state.rightArcColor
+                && bottomLineColor == state.bottomLineColor
+                && TextUtils.equals(leftInnerText, state.leftInnerText)
+                && TextUtils.equals(rightInnerText, state.rightInnerText)
+                && TextUtils.equals(bottomInnerText, state.bottomInnerText)
+                && TextUtils.equals(leftOuterText, state.leftOuterText)
+                && TextUtils.equals(rightOuterText, state.rightOuterText)
+                && TextUtils.equals(bottomOuterText, state.bottomOuterText)
+                && innerTextColor == state.innerTextColor
+                && Float.compare(innerTextSize, state.innerTextSize) == 0
+                && Float.compare(minInnerTextSize, state.minInnerTextSize) == 0
+                && Float.compare(outerTextSize, state.outerTextSize) == 0
+                && outerTextOffset == state.outerTextOffset
+                && strokeWidth == state.strokeWidth
+                && shadowRadius == state.shadowRadius
+                && shadowDx == state.shadowDx
+                && shadowDy == state.shadowDy
+                && shadowColor == state.shadowColor;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Float.floatToIntBits(leftProgress);
+        result = 31 * result + Float.floatToIntBits(rightProgress);
+        result = 31 * result + Float.floatToIntBits(bottomProgress);
+        result = 31 * result + leftArcColor;
+        result = 31 * result + rightArcColor;
+        result = 31 * result + bottomLineColor;
+        result = 31 * result + (leftInnerText != null ? leftInnerText.hashCode() : 0);
+        result = 31 * result + (rightInnerText != null ? rightInnerText.hashCode() : 0);
+        result = 31 * result + (bottomInnerText != null ? bottomInnerText.hashCode() : 0);
+        result = 31 * result + (leftOuterText != null ? leftOuterText.hashCode() : 0);
+        result = 31 * result + (rightOuterText != null ? rightOuterText.hashCode() : 0);
+        result = 31 * result + (bottomOuterText != null ? bottomOuterText.hashCode() : 0);
+        result = 31 * result + innerTextColor;
+        result = 31 * result + Float.floatToIntBits(innerTextSize);
+        result = 31 * result + Float.floatToIntBits(minInnerTextSize);
+        result = 31 * result + Float.floatToIntBits(outerTextSize);
+        result = 31 * result + outerTextOffset;
+        result = 31 * result + strokeWidth;
+        result = 31 * result + shadowRadius;
+        result = 31 * result + shadowDx;
+        result = 31 * result + shadowDy;
+        result = 31 * result + shadowColor;
+        return result;
+    }
+}
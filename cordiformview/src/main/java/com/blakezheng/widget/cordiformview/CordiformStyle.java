@@ -0,0 +1,350 @@
+/*
+ * Copyright 2019 Blake Zheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blakezheng.widget.cordiformview;
+
+import android.content.Context;
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.content.res.TypedArray;
+import android.graphics.Color;
+import android.util.AttributeSet;
+import android.util.LongSparseArray;
+import android.util.TypedValue;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.StyleRes;
+
+import java.util.WeakHashMap;
+
+/**
+ * Attributes of a {@link CordiformView} resolved from a style in a theme, immutable. Views of the same style
+ * in the same theme share one instance, e.g. all hearts of a list, and only the first of them
+ * reads its attributes and computes its colors.
+ * <p>
+ * Attributes set on a view's own xml element are read on top of the shared style, only those are resolved again
+ * for every such view.
+ * <p>
+ * Styles are resolved again after a configuration change or when the theme points its default style attribute
+ * to another style. Other changes of a theme can't be seen, call {@link #clearCache(Resources.Theme)} after them.
+ */
+public final class CordiformStyle {
+    private final static int DEFAULT_SHADOW_COLOR = Color.GRAY;
+    private final static int DEFAULT_INNER_TEXT_COLOR = Color.BLACK;
+    private final static int MAX_PROGRESS = 101;
+    //styles of views created without attributes
+    private final static long DEFAULT_KEY = -1;
+    //bits of the indices into R.styleable.CordiformView to read, it has less than 64 attributes
+    private final static long ALL_ATTRIBUTES = -1;
+
+    //per theme, by style resource and default style attribute. Themes are weakly held, their activities own them
+    private final static WeakHashMap<Resources.Theme, LongSparseArray<CordiformStyle>> CACHE = new WeakHashMap<>();
+
+    //the style is resolved again after a configuration change, dimensions depend on it
+    private final Configuration configuration;
+
+    final int leftArcColor;
+    final int rightArcColor;
+    final int bottomLineColor;
+    final int shadowColor;
+    final int innerTextColor;
+    //colors of all segments and their backgrounds, never modified
+    final int[] segmentColors = new int[CordiformSegments.MAX_COUNT];
+    final int[] segmentBgColors = new int[CordiformSegments.MAX_COUNT];
+
+    final float leftProgress;
+    final float rightProgress;
+    final float bottomProgress;
+
+    final int strokeWidth;
+    final int shadowRadius;
+    final int shadowDx;
+    final int shadowDy;
+
+    final String leftInnerText;
+    final String rightInnerText;
+    final String bottomInnerText;
+    final String leftOuterText;
+    final String rightOuterText;
+    final String bottomOuterText;
+
+    final float innerTextSize;
+    final float minInnerTextSize;
+    final float outerTextSize;
+    final int outerTextOffset;
+
+    final int renderMode;
+    final boolean progressDraggable;
+
+    /**
+     * The defaults of a view created without attributes.
+     */
+    private CordiformStyle(Context context) {
+        configuration = new Configuration(context.getResources().getConfiguration());
+        leftArcColor = ColorUtils.getColor(context, R.color.default_left_arc_color);
+        rightArcColor = ColorUtils.getColor(context, R.color.default_right_arc_color);
+        bottomLineColor = ColorUtils.getColor(context, R.color.default_bottom_line_color);
+        shadowColor = DEFAULT_SHADOW_COLOR;
+        innerTextColor = DEFAULT_INNER_TEXT_COLOR;
+        leftProgress = rightProgress = bottomProgress = 0;
+        strokeWidth = shadowRadius = shadowDx = shadowDy = 0;
+        leftInnerText = rightInnerText = bottomInnerText = null;
+        leftOuterText = rightOuterText = bottomOuterText = null;
+        innerTextSize = minInnerTextSize = outerTextSize = 0;
+        outerTextOffset = 0;
+        renderMode = CordiformView.RENDER_MODE_SOFTWARE;
+        progressDraggable = false;
+        computeSegmentColors();
+    }
+
+    /**
+     * @param attributes bits of the attributes to read from {@code a}, all others are taken from {@code base}
+     */
+    private CordiformStyle(Context context, TypedArray a, long attributes, CordiformStyle base) {
+        configuration = new Configuration(context.getResources().getConfiguration());
+        leftArcColor = has(a, attributes, R.styleable.CordiformView_leftArcColor)
+                ? a.getColor(R.styleable.CordiformView_leftArcColor, 0) : base.leftArcColor;
+        rightArcColor = has(a, attributes, R.styleable.CordiformView_rightArcColor)
+                ? a.getColor(R.styleable.CordiformView_rightArcColor, 0) : base.rightArcColor;
+        bottomLineColor = has(a, attributes, R.styleable.CordiformView_bottomLineColor)
+                ? a.getColor(R.styleable.CordiformView_bottomLineColor, 0) : base.bottomLineColor;
+        shadowColor = has(a, attributes, R.styleable.CordiformView_shadowColor)
+                ? a.getColor(R.styleable.CordiformView_shadowColor, 0) : base.shadowColor;
+        innerTextColor = has(a, attributes, R.styleable.CordiformView_innerTextColor)
+                ? a.getColor(R.styleable.CordiformView_innerTextColor, 0) : base.innerTextColor;
+
+        leftProgress = has(a, attributes, R.styleable.CordiformView_leftProgress)
+                ? clampProgress(a.getInt(R.styleable.CordiformView_leftProgress, 0) % MAX_PROGRESS) : base.leftProgress;
+        rightProgress = has(a, attributes, R.styleable.CordiformView_rightProgress)
+                ? clampProgress(a.getInt(R.styleable.CordiformView_rightProgress, 0) % MAX_PROGRESS) : base.rightProgress;
+        bottomProgress = has(a, attributes, R.styleable.CordiformView_bottomProgress)
+                ? clampProgress(a.getInt(R.styleable.CordiformView_bottomProgress, 0) % MAX_PROGRESS) : base.bottomProgress;
+
+        strokeWidth = has(a, attributes, R.styleable.CordiformView_strokeWidth)
+                ? a.getDimensionPixelSize(R.styleable.CordiformView_strokeWidth, 0) : base.strokeWidth;
+        shadowRadius = has(a, attributes, R.styleable.CordiformView_shadowRadius)
+                ? a.getDimensionPixelSize(R.styleable.CordiformView_shadowRadius, 0) : base.shadowRadius;
+        shadowDx = has(a, attributes, R.styleable.CordiformView_shadowDx)
+                ? a.getDimensionPixelSize(R.styleable.CordiformView_shadowDx, 0) : base.shadowDx;
+        shadowDy = has(a, attributes, R.styleable.CordiformView_shadowDy)
+                ? a.getDimensionPixelSize(R.styleable.CordiformView_shadowDy, 0) : base.shadowDy;
+
+        Resources resources = context.getResources();
+        leftInnerText = has(a, attributes, R.styleable.CordiformView_leftInnerText)
+                ? getString(resources, a, R.styleable.CordiformView_leftInnerText) : base.leftInnerText;
+        rightInnerText = has(a, attributes, R.styleable.CordiformView_rightInnerText)
+                ? getString(resources, a, R.styleable.CordiformView_rightInnerText) : base.rightInnerText;
+        bottomInnerText = has(a, attributes, R.styleable.CordiformView_bottomInnerText)
+                ? getString(resources, a, R.styleable.CordiformView_bottomInnerText) : base.bottomInnerText;
+        leftOuterText = has(a, attributes, R.styleable.CordiformView_leftOuterText)
+                ? getString(resources, a, R.styleable.CordiformView_leftOuterText) : base.leftOuterText;
+        rightOuterText = has(a, attributes, R.styleable.CordiformView_rightOuterText)
+                ? getString(resources, a, R.styleable.CordiformView_rightOuterText) : base.rightOuterText;
+        bottomOuterText = has(a, attributes, R.styleable.CordiformView_bottomOuterText)
+                ? getString(resources, a, R.styleable.CordiformView_bottomOuterText) : base.bottomOuterText;
+
+        innerTextSize = has(a, attributes, R.styleable.CordiformView_innerTextSize)
+                ? a.getDimensionPixelSize(R.styleable.CordiformView_innerTextSize, 0) : base.innerTextSize;
+        minInnerTextSize = has(a, attributes, R.styleable.CordiformView_minInnerTextSize)
+                ? a.getDimensionPixelSize(R.styleable.CordiformView_minInnerTextSize, 0) : base.minInnerTextSize;
+        outerTextSize = has(a, attributes, R.styleable.CordiformView_outerTextSize)
+                ? a.getDimensionPixelSize(R.styleable.CordiformView_outerTextSize, 0) : base.outerTextSize;
+        outerTextOffset = has(a, attributes, R.styleable.CordiformView_outerTextOffset)
+                ? a.getDimensionPixelSize(R.styleable.CordiformView_outerTextOffset, 0) : base.outerTextOffset;
+
+        renderMode = has(a, attributes, R.styleable.CordiformView_renderMode)
+                ? a.getInt(R.styleable.CordiformView_renderMode, 0) : base.renderMode;
+        progressDraggable = has(a, attributes, R.styleable.CordiformView_progressDraggable)
+                ? a.getBoolean(R.styleable.CordiformView_progressDraggable, false) : base.progressDraggable;
+
+        if(leftArcColor == base.leftArcColor && rightArcColor == base.rightArcColor && bottomLineColor == base.bottomLineColor){
+            System.arraycopy(base.segmentColors, 0, segmentColors, 0, CordiformSegments.MAX_COUNT);
+            System.arraycopy(base.segmentBgColors, 0, segmentBgColors, 0, CordiformSegments.MAX_COUNT);
+        }else{
+            computeSegmentColors();
+        }
+    }
+
+    private static boolean has(TypedArray a, long attributes, int index) {
+        return (attributes & (1L << index)) != 0 && a.hasValue(index);
+    }
+
+    private void computeSegmentColors() {
+        //segments past the first three repeat the colors of the parts until they are given their own
+        for(int i = 0; i < CordiformSegments.MAX_COUNT; i += 3){
+            segmentColors[i] = leftArcColor;
+            segmentColors[i + 1] = rightArcColor;
+            segmentColors[i + 2] = bottomLineColor;
+        }
+        for(int i = 0; i < 3; i++){
+            segmentBgColors[i] = HeartColors.parseToDarkColor(segmentColors[i]);
+        }
+        for(int i = 3; i < CordiformSegments.MAX_COUNT; i++){
+            segmentBgColors[i] = segmentBgColors[i % 3];
+        }
+    }
+
+    /**
+     * The style of views created in code with {@link CordiformView#CordiformView(Context, CordiformStyle)}.
+     *
+     * @param styleRes a style setting attributes of {@link R.styleable#CordiformView}, 0 for the defaults
+     */
+    public static CordiformStyle obtain(Context context, @StyleRes int styleRes) {
+        if(styleRes == 0){
+            return obtainDefault(context);
+        }
+        return obtainShared(context, key(0, styleRes), null, 0, styleRes);
+    }
+
+    /**
+     * The style of a view created without attributes.
+     */
+    static CordiformStyle obtainDefault(Context context) {
+        CordiformStyle style = cached(context, DEFAULT_KEY);
+        if(style == null){
+            style = new CordiformStyle(context);
+            cache(context, DEFAULT_KEY, style);
+        }
+        return style;
+    }
+
+    /**
+     * The style of an inflated view, shared unless its element sets attributes of its own,
+     * only those are read on top of the shared style then.
+     */
+    static CordiformStyle obtain(Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
+        int styleRes = attrs != null ? attrs.getStyleAttribute() : 0;
+        long own = attrs != null ? ownAttributes(attrs) : 0;
+        //keyed by the default style the theme sets now, a theme pointing to another one resolves again
+        int defStyle = defaultStyle(context, defStyleAttr);
+        long key = key(defStyle, styleRes);
+        if(own == 0){
+            //attrs only carry the style here
+            return obtainShared(context, key, attrs, defStyleAttr, 0);
+        }
+
+        CordiformStyle style;
+        if(defStyle == 0 || styleRes == 0){
+            //with only one of them the style resolves the same without the attrs, as default style resource
+            style = obtainShared(context, key, null, defStyleAttr, styleRes);
+        }else{
+            //the style attribute only outranks the default style when it comes with the attrs
+            style = cached(context, key);
+            if(style == null){
+                return resolve(context, attrs, defStyleAttr, 0, ALL_ATTRIBUTES, obtainDefault(context));
+            }
+        }
+        return resolve(context, attrs, defStyleAttr, 0, own, style);
+    }
+
+    private static CordiformStyle obtainShared(Context context, long key, @Nullable AttributeSet attrs,
+                                               int defStyleAttr, int defStyleRes) {
+        CordiformStyle style = cached(context, key);
+        if(style == null){
+            style = resolve(context, attrs, defStyleAttr, defStyleRes, ALL_ATTRIBUTES, obtainDefault(context));
+            cache(context, key, style);
+        }
+        return style;
+    }
+
+    private static CordiformStyle resolve(Context context, @Nullable AttributeSet attrs, int defStyleAttr, int defStyleRes,
+                                          long attributes, CordiformStyle base) {
+        TypedArray a = context.obtainStyledAttributes(attrs, R.styleable.CordiformView, defStyleAttr, defStyleRes);
+        try {
+            return new CordiformStyle(context, a, attributes, base);
+        } finally {
+            a.recycle();
+        }
+    }
+
+    /**
+     * @return the style {@code defStyleAttr} points to in the theme, 0 if none
+     */
+    private static int defaultStyle(Context context, int defStyleAttr) {
+        if(defStyleAttr == 0){
+            return 0;
+        }
+        TypedValue value = new TypedValue();
+        if(context.getTheme().resolveAttribute(defStyleAttr, value, false) && value.type == TypedValue.TYPE_REFERENCE){
+            return value.data;
+        }
+        return 0;
+    }
+
+    private static long key(int defStyle, int styleRes) {
+        return ((long) defStyle << 32) | (styleRes & 0xffffffffL);
+    }
+
+    @Nullable
+    private static CordiformStyle cached(Context context, long key) {
+        CordiformStyle style;
+        synchronized (CACHE) {
+            LongSparseArray<CordiformStyle> styles = CACHE.get(context.getTheme());
+            style = styles != null ? styles.get(key) : null;
+        }
+        return style != null && style.configuration.equals(context.getResources().getConfiguration()) ? style : null;
+    }
+
+    /**
+     * Forget all styles resolved in a theme. Call it after changing a theme hearts are inflated in, e.g. with
+     * {@link Resources.Theme#applyStyle}, unless the change only points the default style attribute to another style.
+     */
+    public static void clearCache(Resources.Theme theme) {
+        synchronized (CACHE) {
+            CACHE.remove(theme);
+        }
+    }
+
+    private static void cache(Context context, long key, CordiformStyle style) {
+        synchronized (CACHE) {
+            Resources.Theme theme = context.getTheme();
+            LongSparseArray<CordiformStyle> styles = CACHE.get(theme);
+            if(styles == null){
+                styles = new LongSparseArray<>();
+                CACHE.put(theme, styles);
+            }
+            styles.put(key, style);
+        }
+    }
+
+    /**
+     * @return bits of the attributes of the view the xml element sets itself, not through a style
+     */
+    private static long ownAttributes(AttributeSet attrs) {
+        long own = 0;
+        for(int i = 0; i < attrs.getAttributeCount(); i++){
+            int attr = attrs.getAttributeNameResource(i);
+            for(int index = 0; index < R.styleable.CordiformView.length; index++){
+                if(attr == R.styleable.CordiformView[index]){
+                    own |= 1L << index;
+                }
+            }
+        }
+        return own;
+    }
+
+    private static float clampProgress(float progress) {
+        return progress > 0 ? Math.min(progress, HeartMetrics.FULL_PROGRESS) : 0;
+    }
+
+    private static String getString(Resources resources, TypedArray a, int attr) {
+        int res = a.getResourceId(attr, 0);
+        if(res != 0){
+            return resources.getString(res);
+        }else{
+            return a.getString(attr);
+        }
+    }
+}
@@ -15,18 +15,23 @@
  */
 package com.blakezheng.widget.cordiformview;
 
+import android.animation.TimeInterpolator;
 import android.content.Context;
-import android.content.res.TypedArray;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
-import android.graphics.Color;
-import android.graphics.Paint;
-import android.graphics.Path;
-import android.graphics.RectF;
-import android.text.TextPaint;
+import android.graphics.Picture;
+import android.graphics.Rect;
+import android.os.AsyncTask;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
 import android.text.TextUtils;
 import android.util.AttributeSet;
-import android.util.Log;
+import android.view.MotionEvent;
 import android.view.View;
+import android.view.ViewParent;
+
+import java.util.concurrent.Executor;
 
 import androidx.annotation.Nullable;
 
@@ -35,107 +40,96 @@ import androidx.annotation.Nullable;
  */
 @SuppressWarnings("UnusedDeclaration")
 public class CordiformView extends View {
-    private final static String TAG = "CardiProgressBar";
-    private final static float SQRT_TWO = (float) Math.sqrt(2);
-    private final static float DRAWABLE_RATIO = (float) ((4 + 2 * SQRT_TWO)/ (2 + 3 * SQRT_TWO));
-    private final static float TEXT_HEIGHT_SCALE = 1.171875f;
+    private final static float DRAWABLE_RATIO = HeartMetrics.DRAWABLE_RATIO;
+    private final static float TEXT_HEIGHT_SCALE = HeartMetrics.TEXT_HEIGHT_SCALE;
     private final static int MAX_PROGRESS = 101;
-    private final static int DEFAULT_SHADOW_COLOR = Color.GRAY;
-    private final static int DEFAULT_INNER_TEXT_COLOR = Color.BLACK;
+    private final static float FULL_PROGRESS = HeartMetrics.FULL_PROGRESS;
+
+    //what a property change requires, see onChanged()
+    private final static int CHANGE_DRAW = 1;
+    private final static int CHANGE_GEOMETRY = 1 << 1;
+    private final static int CHANGE_LAYOUT = 1 << 2;
+    //only the progress of one part changed, just its bounds need to be redrawn
+    //one bit per segment from here on
+    private final static int CHANGE_SEGMENT_PROGRESS = 1 << 3;
+    private final static int CHANGE_PROGRESS = ((1 << CordiformSegments.MAX_COUNT) - 1) * CHANGE_SEGMENT_PROGRESS;
+
+    /**
+     * Draw the whole view on a software layer, the default.
+     */
+    public final static int RENDER_MODE_SOFTWARE = 0;
+    /**
+     * Keep the view on the hardware pipeline. The shadow is blurred into a bitmap
+     * in the background in both modes, so neither needs a software layer for it.
+     */
+    public final static int RENDER_MODE_HARDWARE = 1;
 
     private boolean ready = false;
 
-    private int leftArcColor;
-    private int rightArcColor;
-    private int bottomLineColor;
+    //colors, texts, shadow and all paints, see CordiformPainter
+    private CordiformPainter painter;
 
-    private int leftProgress;
-    private int rightProgress;
-    private int bottomProgress;
+    //percent, fractions are kept so that animations and large hearts move smoothly
+    //progress of each segment, the first three are the left, right and bottom progress
+    private final float[] progress = new float[CordiformSegments.MAX_COUNT];
 
     private int strokeWidth;
-    private int actualStrokeWidth;
-
-    private int shadowColor;
-    private int shadowRadius;
-    private int shadowDx = 0;
-    private int shadowDy = 0;
-
-    private int sideLength = -1;
-    private int drawableHeight;
-    private int drawableWidth;
-
-    private int leftLineStartX;
-    private int leftLineStartY;
-    private int leftLineEndX;
-    private int leftLineEndY;
-
-    private int rightLineStartX;
-    private int rightLineStartY;
-    private int rightLineEndX;
-    private int rightLineEndY;
-
-    private int lineLength;
-    private int maxProgressToRightLine;
-    private int maxProgressToBottomArc;
-
-    private int xOffset;
-    private int yOffset;
-
-    private int bottomArcRadius = 70;
-    private int bottomArcCx;
-    private int bottomArcCy;
-
-    private String leftInnerText;
-    private String rightInnerText;
-    private String bottomInnerText;
-    private String leftOuterText;
-    private String rightOuterText;
-    private String bottomOuterText;
-
-    private int innerTextColor;
-    private float innerTextSize;
-    private float outerTextSize;
-    private int outerTextOffset;
-
-    private float outerTextOffsetWhileDrawing;
 
-    private RectF leftArcRect;
-    private RectF rightArcRect;
-    private RectF bottomRect;
-
-    private Paint leftArcPaint;
-    private Paint leftArcBgPaint;
-    private Paint rightArcPaint;
-    private Paint rightArcBgPaint;
-    private Paint linePaint;
-    private Paint bottomArcPaint;
-    private Paint bottomArcBgPaint;
-    private Paint lineBgPaint;
-    private Paint coverPaint;
+    private int renderMode = RENDER_MODE_SOFTWARE;
+
+    private Executor shadowExecutor = AsyncTask.THREAD_POOL_EXECUTOR;
+    private Handler mainHandler;
+
+    private Picture staticLayer;
+    private boolean staticLayerDirty = true;
+    private boolean staticLayerEnabled = true;
+
+    private ProgressAnimator progressAnimator;
+    private ProgressSink progressSink;
+
+    private Editor editor;
+    private boolean batchingChanges;
+    private int pendingChanges;
+
+    private RenderStatsRecorder statsRecorder;
+    private OnRenderStatsListener onRenderStatsListener;
+
+    //dragging, the segment being dragged or -1
+    private boolean progressDraggable;
+    private OnProgressDragListener onProgressDragListener;
+    private int dragSegment = -1;
+    private float dragProgress;
+    private boolean dragScheduled;
+    //applies the latest dragged progress once per frame, however often touches move
+    private final Runnable applyDrag = new Runnable() {
+        @Override
+        public void run() {
+            dragScheduled = false;
+            applyDraggedProgress();
+        }
+    };
 
-    private Paint shadowPaint;
-    private Path shadowPath;
+    //geometry is shared with other views of the same size, see CordiformGeometry
+    private HeartMetrics.Key geometryKey;
 
-    private Path leftOuterTextPath;
-    private Path rightOuterTextPath;
-    private Path bottomOuterTextPath;
-    private Paint outerTextPaint;
+    private int outerTextOffset;
+    //geometry is recomputed once before it is needed, not on every setter
+    private boolean geometryDirty = true;
 
-    private Path leftInnerTextPath;
-    private Path rightInnerTextPath;
-    private Path bottomInnerTextPath;
-    private Paint innerTextPaint;
+    //scratch objects, the draw and geometry paths must not allocate
+    private Rect damageRect;
+    private Rect clipBounds;
 
     public CordiformView(Context context) {
-        super(context);
-
-        leftArcColor = ColorUtils.getColor(context, R.color.default_left_arc_color);
-        rightArcColor = ColorUtils.getColor(context, R.color.default_right_arc_color);
-        bottomLineColor = ColorUtils.getColor(context, R.color.default_bottom_line_color);
-        shadowColor = DEFAULT_SHADOW_COLOR;
-        innerTextColor = DEFAULT_INNER_TEXT_COLOR;
+        this(context, CordiformStyle.obtainDefault(context));
+    }
 
+    /**
+     * A view of a shared style, see {@link CordiformStyle#obtain(Context, int)}.
+     */
+    public CordiformView(Context context, CordiformStyle style) {
+        super(context);
+        applyStyle(style);
         init();
     }
 
@@ -145,125 +139,61 @@ public class CordiformView extends View {
 
     public CordiformView(Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
         super(context, attrs, defStyleAttr);
-        TypedArray a = context.obtainStyledAttributes(attrs, R.styleable.CordiformView, defStyleAttr, 0);
-
-        leftArcColor = a.getColor(R.styleable.CordiformView_leftArcColor, ColorUtils.getColor(context, R.color.default_left_arc_color));
-        rightArcColor = a.getColor(R.styleable.CordiformView_rightArcColor, ColorUtils.getColor(context, R.color.default_right_arc_color));
-        bottomLineColor = a.getColor(R.styleable.CordiformView_bottomLineColor, ColorUtils.getColor(context, R.color.default_bottom_line_color));
-        leftProgress = a.getInt(R.styleable.CordiformView_leftProgress, 0) % MAX_PROGRESS;
-        rightProgress = a.getInt(R.styleable.CordiformView_rightProgress, 0) % MAX_PROGRESS;
-        bottomProgress = a.getInt(R.styleable.CordiformView_bottomProgress, 0) % MAX_PROGRESS;
-        strokeWidth = a.getDimensionPixelSize(R.styleable.CordiformView_strokeWidth, 0);
-        shadowColor = a.getColor(R.styleable.CordiformView_shadowColor, DEFAULT_SHADOW_COLOR);
-        shadowRadius = a.getDimensionPixelSize(R.styleable.CordiformView_shadowRadius, 0);
-        shadowDx = a.getDimensionPixelSize(R.styleable.CordiformView_shadowDx, 0);
-        shadowDy = a.getDimensionPixelSize(R.styleable.CordiformView_shadowDy, 0);
-
-        leftInnerText = getString(a, R.styleable.CordiformView_leftInnerText);
-        rightInnerText = getString(a, R.styleable.CordiformView_rightInnerText);
-        bottomInnerText = getString(a, R.styleable.CordiformView_bottomInnerText);
-        leftOuterText = getString(a, R.styleable.CordiformView_leftOuterText);
-        rightOuterText = getString(a, R.styleable.CordiformView_rightOuterText);
-        bottomOuterText = getString(a, R.styleable.CordiformView_bottomOuterText);
-
-        innerTextSize = a.getDimensionPixelSize(R.styleable.CordiformView_innerTextSize, 0);
-        outerTextSize = a.getDimensionPixelSize(R.styleable.CordiformView_outerTextSize, 0);
-        outerTextOffset = a.getDimensionPixelSize(R.styleable.CordiformView_outerTextOffset, 0);
-
-        innerTextColor = a.getColor(R.styleable.CordiformView_innerTextColor, DEFAULT_INNER_TEXT_COLOR);
-
-        a.recycle();
+        applyStyle(CordiformStyle.obtain(context, attrs, defStyleAttr));
         init();
     }
 
+    private void applyStyle(CordiformStyle style){
+        painter = new CordiformPainter(style);
+        progress[0] = style.leftProgress;
+        progress[1] = style.rightProgress;
+        progress[2] = style.bottomProgress;
+        strokeWidth = style.strokeWidth;
+        painter.setShadow(style.shadowRadius, style.shadowDx, style.shadowDy, style.shadowColor);
+
+        painter.setInnerTexts(style.leftInnerText, style.rightInnerText, style.bottomInnerText);
+        painter.setOuterTexts(style.leftOuterText, style.rightOuterText, style.bottomOuterText);
+
+        painter.setInnerTextSize(style.innerTextSize);
+        painter.setMinInnerTextSize(style.minInnerTextSize);
+        painter.setOuterTextSize(style.outerTextSize);
+        outerTextOffset = style.outerTextOffset;
+
+        renderMode = style.renderMode;
+        progressDraggable = style.progressDraggable;
+    }
+
     private void init(){
 
         ready = true;
 
-        setLayerType(View.LAYER_TYPE_SOFTWARE, null);
-
-        actualStrokeWidth = strokeWidth;
-
-        leftArcRect = new RectF();
-        rightArcRect = new RectF();
-        leftArcPaint = new Paint();
-        leftArcPaint.setAntiAlias(true);
-        leftArcPaint.setDither(true);
-        leftArcPaint.setStyle(Paint.Style.STROKE);
-
-        leftArcPaint.setStrokeCap(Paint.Cap.ROUND);
-        leftArcPaint.setColor(leftArcColor);
-        leftArcBgPaint = new Paint(leftArcPaint);
-        leftArcBgPaint.setColor(parseToDarkColor(leftArcColor));
-
-        rightArcPaint = new Paint();
-        rightArcPaint.set(leftArcPaint);
-        rightArcPaint.setColor(rightArcColor);
-        rightArcBgPaint = new Paint(rightArcPaint);
-        rightArcBgPaint.setColor(parseToDarkColor(rightArcColor));
-
-        linePaint = new Paint();
-        linePaint.set(rightArcPaint);
-        linePaint.setColor(bottomLineColor);
-        linePaint.setStrokeJoin(Paint.Join.ROUND);
-        lineBgPaint = new Paint(linePaint);
-        lineBgPaint.setColor(parseToDarkColor(bottomLineColor));
-        bottomArcPaint = new Paint(linePaint);
-        bottomArcPaint.setAntiAlias(false);
-        bottomArcBgPaint = new Paint(lineBgPaint);
-        bottomArcBgPaint.setAntiAlias(false);
-
-        shadowPath = new Path();
-        bottomRect = new RectF();
-
-        shadowPaint = new Paint();
-        shadowPaint.setStrokeJoin(Paint.Join.ROUND);
-        shadowPaint.setStyle(Paint.Style.STROKE);
-        shadowPaint.setColor(Color.GRAY);
-        shadowPaint.setAntiAlias(true);
-        if(shadowRadius > 0){
-            shadowPaint.setShadowLayer(shadowRadius, shadowDx, shadowDy, shadowColor);
-        }
-
-        coverPaint = new Paint();
-        coverPaint.setColor(bottomLineColor);
-        coverPaint.setStyle(Paint.Style.FILL);
-
-        outerTextPaint = new TextPaint();
-        outerTextPaint.setAntiAlias(true);
-        outerTextPaint.setColor(Color.BLACK);
-        outerTextPaint.setTextAlign(Paint.Align.CENTER);
-        outerTextPaint.setTextSize(outerTextSize);
-        if(outerTextSize <= 0
-                && (!TextUtils.isEmpty(leftOuterText)
-                || !TextUtils.isEmpty(rightOuterText)
-                || !TextUtils.isEmpty(bottomOuterText))){
-            outerTextSize = getContext().getResources().getDisplayMetrics().density * 10;
-        }
-        outerTextPaint.setTextSize(outerTextSize);
-        innerTextPaint = new TextPaint();
-        innerTextPaint.setColor(innerTextColor);
-        innerTextPaint.setAntiAlias(true);
-        innerTextPaint.setTextAlign(Paint.Align.RIGHT);
-
-        leftInnerTextPath = new Path();
-        rightInnerTextPath = new Path();
-        bottomInnerTextPath = new Path();
-        leftOuterTextPath = new Path();
-        rightOuterTextPath = new Path();
-        bottomOuterTextPath = new Path();
-
-        if(!TextUtils.isEmpty(leftOuterText) || !TextUtils.isEmpty(rightOuterText) || !TextUtils.isEmpty(bottomInnerText)){
-            outerTextOffsetWhileDrawing = outerTextSize * TEXT_HEIGHT_SCALE + outerTextOffset;
+        mainHandler = new Handler(Looper.getMainLooper());
+        applyRenderMode();
+
+        geometryKey = new HeartMetrics.Key();
+        staticLayer = new Picture();
+        damageRect = new Rect();
+        clipBounds = new Rect();
+
+        if(painter.outerTextSize <= 0 && painter.hasOuterTexts()){
+            painter.setOuterTextSize(getContext().getResources().getDisplayMetrics().density * 10);
         }
-        doMath();
+        geometryDirty = true;
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        if(progressAnimator != null){
+            progressAnimator.end();
+        }
+        //the baked shadow is kept, recycled views draw it at once. It is dropped when the size or the shadow changes
     }
 
     @Override
     protected void onSizeChanged(int w, int h, int oldw, int oldh) {
         super.onSizeChanged(w, h, oldw, oldh);
-        Log.d(TAG, "onSizeChanged");
-        doMath();
+        geometryDirty = true;
     }
 
     @Override
@@ -292,317 +222,446 @@ public class CordiformView extends View {
         }
     }
 
-    private void setupStrokeWidth(){
-        if(sideLength < 0){
-            return;
-        }
-
-        if(actualStrokeWidth > sideLength / 3){
-            actualStrokeWidth = sideLength / 3;
-        }else if(actualStrokeWidth <= 0){
-            actualStrokeWidth = sideLength / 6;
-        }
-
-        leftArcPaint.setStrokeWidth(actualStrokeWidth);
-        leftArcBgPaint.setStrokeWidth(actualStrokeWidth);
-        rightArcPaint.setStrokeWidth(actualStrokeWidth);
-        rightArcBgPaint.setStrokeWidth(actualStrokeWidth);
-        linePaint.setStrokeWidth(actualStrokeWidth);
-        lineBgPaint.setStrokeWidth(actualStrokeWidth);
-        bottomArcPaint.setStrokeWidth(actualStrokeWidth);
-        bottomArcBgPaint.setStrokeWidth(actualStrokeWidth);
-        shadowPaint.setStrokeWidth(actualStrokeWidth);
-    }
-
+    /**
+     * Compute the geometry if something it depends on changed since, cheap otherwise.
+     */
     private void doMath(){
-        if(!ready){
+        if(!geometryDirty || !ready){
             return;
         }
 
         if(getHeight() == 0 && getWidth() == 0){
-            Log.d(TAG, "no size yet");
             return;
         }
+        geometryDirty = false;
 
-        actualStrokeWidth = strokeWidth;
-        xOffset = strokeWidth / 2 + getPaddingStart() + (int)Math.max(shadowRadius - shadowDx, (outerTextSize * TEXT_HEIGHT_SCALE) + outerTextOffset);
-        yOffset = strokeWidth / 2 + getPaddingTop() + (int)Math.max(shadowRadius - shadowDy, (outerTextSize * TEXT_HEIGHT_SCALE) + outerTextOffset) ;
-        float ratio = (float) getWidthWithoutPadding() / getHeightWithoutPadding();
-        if(ratio > DRAWABLE_RATIO){
-            drawableHeight = getHeightWithoutPadding();
-            drawableWidth = (int) (drawableHeight * DRAWABLE_RATIO);
-            xOffset += (getWidthWithoutPadding() - drawableWidth) / 2;
+        if(statsRecorder == null){
+            computeGeometry();
         }else{
-            drawableWidth = getWidthWithoutPadding();
-            drawableHeight =(int) (drawableWidth / DRAWABLE_RATIO);
-            yOffset += (getHeightWithoutPadding() - drawableHeight) / 2;
+            long start = statsRecorder.beginPhase(RenderStats.PHASE_MATH);
+            computeGeometry();
+            statsRecorder.endPhase(RenderStats.PHASE_MATH, start);
         }
+    }
 
-        if(drawableWidth <= 0 || drawableHeight <=0){
-            return;
+    private void computeGeometry(){
+        geometryKey.set(getWidth(), getHeight(), getPaddingStart(), getPaddingTop(), getPaddingEnd(), getPaddingBottom(),
+                strokeWidth, painter.shadowRadius, painter.shadowDx, painter.shadowDy,
+                painter.outerTextSize, outerTextOffset);
+        //nothing to redo if the shape is the same
+        if(painter.setGeometry(CordiformGeometry.obtain(geometryKey))){
+            staticLayerDirty = true;
+        }
+        if(progressDraggable){
+            //built here rather than on the first touch
+            painter.getGeometry().getTouchMap();
         }
-
-        sideLength = (int) (2 * drawableWidth / (2 + SQRT_TWO));
-        setupStrokeWidth();
-
-        leftArcRect.set(xOffset, yOffset, sideLength + xOffset, sideLength + yOffset);
-        rightArcRect.set(drawableWidth - sideLength + xOffset, yOffset, drawableWidth + xOffset, sideLength + yOffset);
-
-        bottomArcRadius = (int) (0.25 * sideLength);
-        lineLength = (int) (2 * (sideLength - bottomArcRadius) + Math.PI * bottomArcRadius / 2);
-        maxProgressToRightLine = (sideLength - bottomArcRadius) * 100 / lineLength;
-        maxProgressToBottomArc = 100 - (sideLength - bottomArcRadius) * 100 / lineLength;
-
-        leftLineEndX = (int) (( 2 - SQRT_TWO) * sideLength / 4) + xOffset;
-        leftLineEndY = (int) (( 2 + SQRT_TWO) * sideLength / 4) + yOffset;
-        rightLineStartX = drawableWidth - leftLineEndX + 2*xOffset;
-        rightLineStartY = leftLineEndY;
-        leftLineStartX = rightLineEndX = xOffset + drawableWidth / 2;
-        leftLineStartY = rightLineEndY = yOffset + drawableHeight;
-
-        int offset = (int) (bottomArcRadius/SQRT_TWO);
-        rightLineEndX  += offset;
-        rightLineEndY -= offset;
-        leftLineStartX -= offset;
-        leftLineStartY -= offset;
-
-        bottomArcCx = xOffset + drawableWidth / 2;
-        bottomArcCy = yOffset + (int) (drawableHeight - SQRT_TWO * bottomArcRadius);
-        bottomRect.set(bottomArcCx  - bottomArcRadius, bottomArcCy - bottomArcRadius,
-                bottomArcCx + bottomArcRadius, bottomArcCy + bottomArcRadius);
-
-        shadowPath.reset();
-        shadowPath.moveTo(rightLineStartX, rightLineStartY);
-        shadowPath.lineTo(rightLineEndX, rightLineEndY);
-        shadowPath.arcTo(bottomRect, 45, 90);
-        shadowPath.lineTo(leftLineEndX, leftLineEndY);
-        shadowPath.arcTo(leftArcRect, 135, 180);
-        shadowPath.arcTo(rightArcRect, -135, 180);
-
-        leftInnerTextPath.reset();
-        leftInnerTextPath.moveTo(leftLineEndX, leftLineEndY);
-        leftInnerTextPath.arcTo(leftArcRect, 135, 180);
-
-        rightInnerTextPath.reset();
-//        rightInnerTextPath.moveTo(drawableWidth / 2 + xOffset, drawableHeight - SQRT_TWO * sideLength + yOffset);
-        rightInnerTextPath.moveTo(rightLineStartX, rightLineStartY);
-        rightInnerTextPath.arcTo(rightArcRect, 45, -180);
-
-        bottomInnerTextPath.reset();
-        bottomInnerTextPath.moveTo(leftLineEndX, leftLineEndY);
-        bottomInnerTextPath.lineTo(leftLineStartX, leftLineStartY);
-        bottomInnerTextPath.arcTo(bottomRect, 135, -90);
-        bottomInnerTextPath.lineTo(rightLineStartX, rightLineStartY);
-
-        leftOuterTextPath.reset();
-        leftOuterTextPath.moveTo(leftLineEndX - (actualStrokeWidth + outerTextOffsetWhileDrawing)/2 ,
-                leftLineEndY - (actualStrokeWidth + outerTextOffsetWhileDrawing)/2);
-        RectF leftTextRect = new RectF(leftArcRect);
-        leftTextRect.inset(-(actualStrokeWidth + outerTextOffsetWhileDrawing)/2, -(actualStrokeWidth + outerTextOffsetWhileDrawing)/2);
-        leftOuterTextPath.arcTo(leftTextRect, 135, 180);
-
-        rightOuterTextPath.reset();
-        rightOuterTextPath.moveTo(drawableWidth / 2 - (actualStrokeWidth + outerTextOffsetWhileDrawing)/2  + xOffset,
-                drawableHeight - SQRT_TWO * sideLength  - (actualStrokeWidth + outerTextOffsetWhileDrawing)/2 + yOffset);
-        RectF rightTextRect = new RectF(rightArcRect);
-        rightTextRect.inset(-(actualStrokeWidth + outerTextOffsetWhileDrawing)/2, -(actualStrokeWidth + outerTextOffsetWhileDrawing)/2);
-        rightOuterTextPath.arcTo(rightTextRect, -135, 180);
-
-        float halfLengthDiagonalLine = SQRT_TWO * sideLength / 2;
-        int xMidPointOfRound = (int) (sideLength / 2 + SQRT_TWO * sideLength / 4 + xOffset);
-        int yMidPointOfRound = (int) (sideLength / 2 + SQRT_TWO * sideLength / 4 + yOffset);
-        bottomOuterTextPath.reset();
-        bottomOuterTextPath.moveTo(xMidPointOfRound - halfLengthDiagonalLine - actualStrokeWidth /2, yMidPointOfRound);
-        RectF bottomTextArcRect = new RectF();
-        bottomTextArcRect.set(xMidPointOfRound - halfLengthDiagonalLine - actualStrokeWidth /2, yMidPointOfRound - halfLengthDiagonalLine - actualStrokeWidth /2,
-                xMidPointOfRound + halfLengthDiagonalLine + actualStrokeWidth /2, yMidPointOfRound + halfLengthDiagonalLine + actualStrokeWidth /2);
-        bottomOuterTextPath.arcTo(bottomTextArcRect, 180, -180, false);
-
     }
 
     @Override
     protected void onDraw(Canvas canvas) {
         super.onDraw(canvas);
-        Log.d(TAG, "onDraw");
-        if(drawableWidth <= 0 || drawableHeight <=0){
+        doMath();
+        if(!painter.hasGeometry()){
             return;
         }
-        //draw shadow
-        canvas.drawPath(shadowPath, shadowPaint);
-
-        //draw right part of the bottom line
-        canvas.drawLine(rightLineStartX, rightLineStartY, rightLineEndX, rightLineEndY, lineBgPaint);
-        float rightLineProgress = Math.min(maxProgressToRightLine, bottomProgress);
-        float rightLineRatio = rightLineProgress  / maxProgressToRightLine;
-        canvas.drawLine(rightLineStartX, rightLineStartY,
-                rightLineStartX + ((rightLineEndX - rightLineStartX) * rightLineRatio),
-                rightLineStartY + ((rightLineEndY - rightLineStartY) * rightLineRatio), linePaint);
-
+        if(painter.layoutTextsIfNeeded()){
+            staticLayerDirty = true;
+        }
+        CordiformGeometry g = painter.getGeometry();
 
-        //draw right arc background
-        canvas.drawArc(rightArcRect, -135, 180, false, rightArcBgPaint);
-        //draw right arc progress
-        canvas.drawArc(rightArcRect, -135, 180 * ((float) rightProgress / 100), false, rightArcPaint);
+        if(painter.needsShadowBake()){
+            bakeShadow();
+        }
 
-        //draw left arc background
-        canvas.drawArc(leftArcRect, 135, 180, false, leftArcBgPaint);
-        //draw left arc progress
-        canvas.drawArc(leftArcRect, 135, 180 * ((float) leftProgress / 100), false, leftArcPaint);
+        RenderStatsRecorder recorder = statsRecorder;
+        long start = recorder != null ? recorder.beginPhase(RenderStats.PHASE_STATIC_LAYER) : 0;
+        drawStaticLayer(canvas);
+        if(recorder != null){
+            recorder.endPhase(RenderStats.PHASE_STATIC_LAYER, start);
+            start = recorder.beginPhase(RenderStats.PHASE_ARCS);
+        }
 
+        //skip parts outside of the damaged region
+        if(!canvas.getClipBounds(clipBounds)){
+            clipBounds.setEmpty();
+        }
+        boolean drawLeft = Rect.intersects(clipBounds, g.leftDamageRect);
+        boolean drawRight = Rect.intersects(clipBounds, g.rightDamageRect);
+        boolean drawBottom = Rect.intersects(clipBounds, g.bottomDamageRect);
+        int visibleParts = (drawLeft ? CordiformSegments.PART_LEFT : 0)
+                | (drawRight ? CordiformSegments.PART_RIGHT : 0)
+                | (drawBottom ? CordiformSegments.PART_BOTTOM : 0);
+
+        //backgrounds first, see CordiformPainter#drawRemaining
+        painter.drawRemaining(canvas, progress, visibleParts);
+        painter.drawProgress(canvas, progress, visibleParts);
+
+        if(recorder != null){
+            recorder.endPhase(RenderStats.PHASE_ARCS, start);
+            start = recorder.beginPhase(RenderStats.PHASE_INNER_TEXT);
+        }
 
-        //draw left part of the bottom line
-        canvas.drawLine(leftLineStartX, leftLineStartY, leftLineEndX, leftLineEndY, lineBgPaint);
-        float leftLineProgress = bottomProgress - maxProgressToBottomArc;
-        if(leftLineProgress > 0){
-            float leftLineRatio = leftLineProgress / (100 - maxProgressToBottomArc);
-            canvas.drawLine(leftLineStartX, leftLineStartY,
-                    leftLineStartX + ((leftLineEndX - leftLineStartX) * leftLineRatio),
-                    leftLineStartY + ((leftLineEndY - leftLineStartY) * leftLineRatio), linePaint);
+        if(drawLeft){
+            painter.drawLeftInnerText(canvas);
+        }
+        if(drawRight){
+            painter.drawRightInnerText(canvas);
+        }
+        if(drawBottom){
+            painter.drawBottomInnerText(canvas);
         }
 
-        //draw round corner of the bottom line
-        canvas.drawArc(bottomRect, 45, 90, false, bottomArcBgPaint);
-        float bottomArcProgress = Math.min(bottomProgress - maxProgressToRightLine, maxProgressToBottomArc - maxProgressToRightLine) + 0.5f;
-        if(bottomArcProgress >= 0){
-            float bottomArcRatio = bottomArcProgress / (maxProgressToBottomArc - maxProgressToRightLine);
-            canvas.drawArc(bottomRect, 45, 90 * bottomArcRatio, false, bottomArcPaint);
+        if(recorder != null){
+            recorder.endPhase(RenderStats.PHASE_INNER_TEXT, start);
+            if(recorder.onDrawFinished() && onRenderStatsListener != null){
+                onRenderStatsListener.onRenderStats(this, recorder.snapshot());
+            }
         }
+    }
 
-        //!This is the trick to make bottom lines seem to be one
-        if(rightLineProgress  > 0.5 * maxProgressToRightLine){
-            canvas.drawCircle(rightLineStartX + ((rightLineEndX - rightLineStartX) * rightLineRatio),
-                    rightLineStartY + ((rightLineEndY - rightLineStartY) * rightLineRatio), actualStrokeWidth /2, coverPaint);
+    /**
+     * Shadow and the outer texts don't change with progress,
+     * they are recorded once into {@link #staticLayer} and replayed until something of them changes.
+     */
+    private void drawStaticLayer(Canvas canvas){
+        //hardware canvas can't replay a picture before M
+        if(!staticLayerEnabled || (canvas.isHardwareAccelerated() && Build.VERSION.SDK_INT < Build.VERSION_CODES.M)){
+            drawStaticParts(canvas);
+            return;
         }
 
-        //height of innerText must smaller than stroke width
-        float actualInnerTextSize = innerTextSize;
-        if(innerTextSize > actualStrokeWidth / TEXT_HEIGHT_SCALE){
-            innerTextSize = actualStrokeWidth / TEXT_HEIGHT_SCALE;
-        }else if(innerTextSize <= 0){
-            innerTextSize = actualStrokeWidth / TEXT_HEIGHT_SCALE / 1.5f;
+        if(staticLayerDirty){
+            staticLayerDirty = false;
+            Canvas recordingCanvas = staticLayer.beginRecording(getWidth(), getHeight());
+            drawStaticParts(recordingCanvas);
+            staticLayer.endRecording();
         }
-        innerTextPaint.setTextSize(innerTextSize);
+        canvas.drawPicture(staticLayer);
+    }
 
-        Paint.FontMetrics fontMetrics = innerTextPaint.getFontMetrics();
-        float innerTextVOffset=(fontMetrics.bottom - fontMetrics.top)/2 - fontMetrics.bottom;
+    /**
+     * Draw the static parts directly in every frame instead of replaying {@link #staticLayer},
+     * so that a recording canvas sees each of their draw calls. Tests only.
+     */
+    void setStaticLayerEnabled(boolean enabled){
+        staticLayerEnabled = enabled;
+        staticLayerDirty = true;
+    }
 
-        innerTextPaint.setTextAlign(Paint.Align.RIGHT);
-        if(!TextUtils.isEmpty(leftInnerText)){
-            canvas.drawTextOnPath(leftInnerText, leftInnerTextPath, 0, innerTextVOffset, innerTextPaint);
+    /**
+     * Record the static parts into the given picture, to see what a frame replays. Tests only.
+     */
+    void setStaticLayer(Picture picture){
+        staticLayer = picture;
+        staticLayerDirty = true;
+    }
+
+    CordiformGeometry getGeometry(){
+        doMath();
+        return painter.getGeometry();
+    }
+
+    private void drawStaticParts(Canvas canvas){
+        RenderStatsRecorder recorder = statsRecorder;
+        long start = recorder != null ? recorder.beginPhase(RenderStats.PHASE_SHADOW) : 0;
+        painter.drawBakedShadow(canvas);
+        if(recorder != null){
+            recorder.endPhase(RenderStats.PHASE_SHADOW, start);
+            start = recorder.beginPhase(RenderStats.PHASE_OUTER_TEXT);
         }
 
-        //for text to be more readable
-        innerTextPaint.setTextAlign(Paint.Align.LEFT);
-        if(!TextUtils.isEmpty(rightInnerText)){
-            canvas.drawTextOnPath(rightInnerText, rightInnerTextPath, 1, innerTextVOffset, innerTextPaint);
+        painter.drawOuterTexts(canvas);
+        if(recorder != null){
+            recorder.endPhase(RenderStats.PHASE_OUTER_TEXT, start);
         }
+    }
 
-        if(!TextUtils.isEmpty(bottomInnerText)){
-            canvas.drawTextOnPath(bottomInnerText, bottomInnerTextPath, 0, innerTextVOffset, innerTextPaint);
+    /**
+     * Blur the shadow on {@link #shadowExecutor}, it is left out of the frames until it is done.
+     */
+    private void bakeShadow(){
+        final int generation = painter.beginShadowBake();
+        final CordiformGeometry geometry = painter.getGeometry();
+        final int radius = painter.shadowRadius;
+        final int dx = painter.shadowDx;
+        final int dy = painter.shadowDy;
+        if(radius <= 0){
+            //the recorded layer may still hold the last shadow
+            if(painter.setShadowBitmap(null, generation)){
+                staticLayerDirty = true;
+                invalidate();
+            }
+            return;
         }
 
-        fontMetrics = outerTextPaint.getFontMetrics();
-        float outerTextVOffset=(fontMetrics.bottom - fontMetrics.top)/2 - fontMetrics.bottom;
-        if(!TextUtils.isEmpty(bottomOuterText)){
-            outerTextPaint.setColor(bottomLineColor);
-            canvas.drawTextOnPath(bottomOuterText, bottomOuterTextPath, 0, outerTextVOffset, outerTextPaint);
+        shadowExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final Bitmap bitmap = CordiformPainter.bakeShadow(geometry, radius, dx, dy);
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if(painter.setShadowBitmap(bitmap, generation) && bitmap != null){
+                            staticLayerDirty = true;
+                            invalidate();
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    private void applyRenderMode(){
+        if(renderMode == RENDER_MODE_HARDWARE){
+            setLayerType(View.LAYER_TYPE_NONE, null);
+        }else{
+            setLayerType(View.LAYER_TYPE_SOFTWARE, null);
         }
+        staticLayerDirty = true;
+    }
 
-        if(!TextUtils.isEmpty(rightOuterText)){
-            outerTextPaint.setColor(rightArcColor);
-            canvas.drawTextOnPath(rightOuterText, rightOuterTextPath, 0, outerTextVOffset, outerTextPaint);
+    public int getActualStrokeWidth(){
+        doMath();
+        return painter.getGeometry() != null ? painter.getStrokeWidth() : strokeWidth;
+    }
+
+    public void setProgress(int left, int right, int bottom){
+        setProgress((float) (left % MAX_PROGRESS), right % MAX_PROGRESS, bottom % MAX_PROGRESS);
+    }
+
+    /**
+     * Same as {@link #setProgress(int, int, int)} but keeps fractions of a percent, values are clamped to [0, 100].
+     */
+    public void setProgress(float left, float right, float bottom){
+        cancelProgressAnimation();
+        updateProgress(clampProgress(left), clampProgress(right), clampProgress(bottom));
+    }
+
+    private void updateProgress(float left, float right, float bottom){
+        onChanged(putProgress(0, left) | putProgress(1, right) | putProgress(2, bottom));
+    }
+
+    /**
+     * @return the change bit of the segment if its progress changed
+     */
+    private int putProgress(int segment, float value){
+        if(progress[segment] == value){
+            return 0;
+        }
+        progress[segment] = value;
+        return CHANGE_SEGMENT_PROGRESS << segment;
+    }
+
+    /**
+     * Animate all three parts to the given progress from one frame callback, the view is redrawn once per frame.
+     * Calling it again while running retargets the animation from its current values.
+     * Any other progress setter cancels it and detaching the view jumps to the target values.
+     *
+     * @param interpolator null for linear
+     */
+    public void animateProgress(int left, int right, int bottom, long durationMs, @Nullable TimeInterpolator interpolator){
+        animateProgress((float) (left % MAX_PROGRESS), right % MAX_PROGRESS, bottom % MAX_PROGRESS, durationMs, interpolator);
+    }
+
+    /**
+     * @see #animateProgress(int, int, int, long, TimeInterpolator)
+     */
+    public void animateProgress(float left, float right, float bottom, long durationMs, @Nullable TimeInterpolator interpolator){
+        if(progressAnimator == null){
+            progressAnimator = new ProgressAnimator(this);
         }
+        progressAnimator.start(clampProgress(left), clampProgress(right), clampProgress(bottom), durationMs, interpolator);
+    }
 
-        if(!TextUtils.isEmpty(leftOuterText)){
-            outerTextPaint.setColor(leftArcColor);
-            canvas.drawTextOnPath(leftOuterText, leftOuterTextPath, 0, outerTextVOffset, outerTextPaint);
+    /**
+     * Sink for progress values published from any thread at any rate, see {@link ProgressSink}.
+     * Must be called on the UI thread, the returned sink can then be handed to other threads.
+     */
+    public ProgressSink getProgressSink(){
+        if(progressSink == null){
+            progressSink = new ProgressSink(this);
         }
+        return progressSink;
+    }
 
+    public boolean isAnimatingProgress(){
+        return progressAnimator != null && progressAnimator.isRunning();
     }
 
+    /**
+     * Stop a running {@link #animateProgress} where it currently is.
+     */
+    public void cancelProgressAnimation(){
+        if(progressAnimator != null){
+            progressAnimator.cancel();
+        }
+    }
 
-    private int getWidthWithoutPadding(){
-        int widthWithoutPadding = getWidth() - calActualPaddingHorizontal();
-        return widthWithoutPadding >= 0 ? widthWithoutPadding : 0;
+    float getAnimatedLeft() {
+        return progress[0];
     }
 
-    private int getHeightWithoutPadding(){
-        int heightWithoutPadding = getHeight() - calActualPaddingVertical();
-        return heightWithoutPadding >= 0 ? heightWithoutPadding : 0;
+    float getAnimatedRight() {
+        return progress[1];
     }
 
-    public int getActualStrokeWidth(){
-        return actualStrokeWidth;
+    float getAnimatedBottom() {
+        return progress[2];
     }
 
-    public void setProgress(int left, int right, int bottom){
-        this.leftProgress = left % MAX_PROGRESS;
-        this.rightProgress = right % MAX_PROGRESS;
-        this.bottomProgress = bottom % MAX_PROGRESS;
-        invalidate();
+    void onAnimatedProgress(float left, float right, float bottom) {
+        updateProgress(left, right, bottom);
     }
 
     public int getLeftArcColor() {
-        return leftArcColor;
+        return painter.leftArcColor;
     }
 
     public void setLeftArcColor(int leftArcColor) {
-        this.leftArcColor = leftArcColor;
-        leftArcPaint.setColor(leftArcColor);
-        leftArcBgPaint.setColor(parseToDarkColor(leftArcColor));
-        invalidate();
+        painter.setLeftArcColor(leftArcColor);
+        staticLayerDirty = true;
+        onChanged(CHANGE_DRAW);
     }
 
     public int getRightArcColor() {
-        return rightArcColor;
+        return painter.rightArcColor;
     }
 
     public void setRightArcColor(int rightArcColor) {
-        this.rightArcColor = rightArcColor;
-        rightArcPaint.setColor(leftArcColor);
-        rightArcBgPaint.setColor(parseToDarkColor(leftArcColor));
-        invalidate();
+        painter.setRightArcColor(rightArcColor);
+        staticLayerDirty = true;
+        onChanged(CHANGE_DRAW);
     }
 
     public int getBottomLineColor() {
-        return bottomLineColor;
+        return painter.bottomLineColor;
     }
 
     public void setBottomLineColor(int bottomLineColor) {
-        this.bottomLineColor = bottomLineColor;
-        linePaint.setColor(bottomLineColor);
-        lineBgPaint.setColor(parseToDarkColor(bottomLineColor));
-        bottomArcPaint.setColor(bottomLineColor);
-        bottomArcBgPaint.setColor(parseToDarkColor(bottomLineColor));
-        coverPaint.setColor(bottomLineColor);
-        invalidate();
+        painter.setBottomLineColor(bottomLineColor);
+        staticLayerDirty = true;
+        onChanged(CHANGE_DRAW);
     }
 
     public int getLeftProgress() {
-        return leftProgress;
+        return (int) progress[0];
+    }
+
+    public float getPreciseLeftProgress() {
+        return progress[0];
     }
 
     public void setLeftProgress(int leftProgress) {
-        this.leftProgress = leftProgress % MAX_PROGRESS;
-        invalidate();
+        setLeftProgress((float) (leftProgress % MAX_PROGRESS));
+    }
+
+    public void setLeftProgress(float leftProgress) {
+        cancelProgressAnimation();
+        onChanged(putProgress(0, clampProgress(leftProgress)));
     }
 
     public int getRightProgress() {
-        return rightProgress;
+        return (int) progress[1];
+    }
+
+    public float getPreciseRightProgress() {
+        return progress[1];
     }
 
     public void setRightProgress(int rightProgress) {
-        this.rightProgress = rightProgress % MAX_PROGRESS;
-        invalidate();
+        setRightProgress((float) (rightProgress % MAX_PROGRESS));
+    }
+
+    public void setRightProgress(float rightProgress) {
+        cancelProgressAnimation();
+        onChanged(putProgress(1, clampProgress(rightProgress)));
     }
 
     public int getBottomProgress() {
-        return bottomProgress;
+        return (int) progress[2];
+    }
+
+    public float getPreciseBottomProgress() {
+        return progress[2];
     }
 
     public void setBottomProgress(int bottomProgress) {
-        this.bottomProgress = bottomProgress % MAX_PROGRESS;
-        invalidate();
+        setBottomProgress((float) (bottomProgress % MAX_PROGRESS));
+    }
+
+    public void setBottomProgress(float bottomProgress) {
+        cancelProgressAnimation();
+        onChanged(putProgress(2, clampProgress(bottomProgress)));
+    }
+
+    public CordiformSegments getSegments() {
+        return painter.segments;
+    }
+
+    /**
+     * Split the heart into other segments, {@link CordiformSegments#threeParts()} by default.
+     * The left, right and bottom setters of progress and colors, {@link #bind(CordiformState)},
+     * {@link #animateProgress} and the {@link ProgressSink} keep addressing the first three segments.
+     * Progress of segments that are added starts at 0.
+     */
+    public void setSegments(CordiformSegments segments) {
+        CordiformSegments old = painter.segments;
+        if(old.equals(segments)){
+            return;
+        }
+        for(int i = segments.count; i < old.count; i++){
+            progress[i] = 0;
+        }
+        painter.setSegments(segments);
+        onChanged(CHANGE_DRAW);
+    }
+
+    public float getSegmentProgress(int segment) {
+        return progress[checkSegment(segment)];
+    }
+
+    /**
+     * Same as the other progress setters for any segment, the value is clamped to [0, 100].
+     */
+    public void setSegmentProgress(int segment, float progress) {
+        cancelProgressAnimation();
+        onChanged(putProgress(checkSegment(segment), clampProgress(progress)));
+    }
+
+    /**
+     * Set the progress of all segments at once.
+     *
+     * @param progress one value per segment
+     */
+    public void setSegmentProgress(float[] progress) {
+        int count = painter.segments.count;
+        if(progress.length != count){
+            throw new IllegalArgumentException("expected " + count + " values, got " + progress.length);
+        }
+        cancelProgressAnimation();
+        int changes = 0;
+        for(int i = 0; i < count; i++){
+            changes |= putProgress(i, clampProgress(progress[i]));
+        }
+        onChanged(changes);
+    }
+
+    public int getSegmentColor(int segment) {
+        return painter.getSegmentColor(checkSegment(segment));
+    }
+
+    public void setSegmentColor(int segment, int color) {
+        painter.setSegmentColor(checkSegment(segment), color);
+        staticLayerDirty = true;
+        onChanged(CHANGE_DRAW);
+    }
+
+    private int checkSegment(int segment){
+        if(segment < 0 || segment >= painter.segments.count){
+            throw new IndexOutOfBoundsException("segment " + segment + " of " + painter.segments.count);
+        }
+        return segment;
     }
 
     public int getStrokeWidth() {
@@ -610,112 +669,100 @@ public class CordiformView extends View {
     }
 
     public void setStrokeWidth(int strokeWidth) {
-        actualStrokeWidth = this.strokeWidth = strokeWidth;
-        setupStrokeWidth();
-        invalidate();
+        this.strokeWidth = strokeWidth;
+        onChanged(CHANGE_GEOMETRY);
     }
 
     public int getShadowColor() {
-        return shadowColor;
+        return painter.shadowColor;
     }
 
     public void setShadowColor(int shadowColor) {
-        this.shadowColor = shadowColor;
-        if(shadowRadius > 0){
-            shadowPaint.setShadowLayer(shadowRadius, shadowDx, shadowDy, shadowColor);
-        }
-        invalidate();
+        painter.setShadow(painter.shadowRadius, painter.shadowDx, painter.shadowDy, shadowColor);
+        staticLayerDirty = true;
+        onChanged(CHANGE_DRAW);
     }
 
     public int getShadowRadius() {
-        return shadowRadius;
+        return painter.shadowRadius;
     }
 
     public void setShadowRadius(int shadowRadius) {
-        if(this.shadowRadius != shadowRadius){
-            this.shadowRadius = shadowRadius;
-            if(shadowRadius > 0){
-                shadowPaint.setShadowLayer(shadowRadius, shadowDx, shadowDy, shadowColor);
-                doMath();
-                invalidate();
-            }
+        if(painter.shadowRadius != shadowRadius){
+            painter.setShadow(shadowRadius, painter.shadowDx, painter.shadowDy, painter.shadowColor);
+            staticLayerDirty = true;
+            onChanged(CHANGE_GEOMETRY);
         }
     }
 
     public int getShadowDx() {
-        return shadowDx;
+        return painter.shadowDx;
     }
 
     public void setShadowDx(int shadowDx) {
-        if(this.shadowDx != shadowDx){
-            this.shadowDx = shadowDx;
-            if(shadowRadius > 0){
-                shadowPaint.setShadowLayer(shadowRadius, shadowDx, shadowDy, shadowColor);
-                doMath();
-                invalidate();
-            }
+        if(painter.shadowDx != shadowDx){
+            painter.setShadow(painter.shadowRadius, shadowDx, painter.shadowDy, painter.shadowColor);
+            staticLayerDirty = true;
+            onChanged(CHANGE_GEOMETRY);
         }
     }
 
     public int getShadowDy() {
-        return shadowDy;
+        return painter.shadowDy;
     }
 
     public void setShadowDy(int shadowDy) {
-        if(this.shadowDy != shadowDy){
-            this.shadowDy = shadowDy;
-            if(shadowRadius > 0){
-                shadowPaint.setShadowLayer(shadowRadius, shadowDx, shadowDy, shadowColor);
-                doMath();
-                invalidate();
-            }
+        if(painter.shadowDy != shadowDy){
+            painter.setShadow(painter.shadowRadius, painter.shadowDx, shadowDy, painter.shadowColor);
+            staticLayerDirty = true;
+            onChanged(CHANGE_GEOMETRY);
         }
     }
 
     public String getLeftInnerText() {
-        return leftInnerText;
+        return painter.leftInnerText;
     }
 
     public void setLeftInnerText(String leftInnerText) {
-        this.leftInnerText = leftInnerText;
-        invalidate();
+        painter.setInnerTexts(leftInnerText, painter.rightInnerText, painter.bottomInnerText);
+        onChanged(CHANGE_DRAW);
     }
 
     public void setLeftInnerText(int leftInnerTextRes) {
-        this.leftInnerText = getResources().getString(leftInnerTextRes);
-        invalidate();
+        painter.setInnerTexts(getResources().getString(leftInnerTextRes), painter.rightInnerText, painter.bottomInnerText);
+        onChanged(CHANGE_DRAW);
     }
 
     public String getRightInnerText() {
-        return rightInnerText;
+        return painter.rightInnerText;
     }
 
     public void setRightInnerText(String rightInnerText) {
-        this.rightInnerText = rightInnerText;
-        invalidate();
+        painter.setInnerTexts(painter.leftInnerText, rightInnerText, painter.bottomInnerText);
+        onChanged(CHANGE_DRAW);
     }
 
     public void setRightInnerText(int rightInnerTextRes) {
-        this.rightInnerText = getResources().getString(rightInnerTextRes);
-        invalidate();
+        painter.setInnerTexts(painter.leftInnerText, getResources().getString(rightInnerTextRes), painter.bottomInnerText);
+        onChanged(CHANGE_DRAW);
     }
 
     public String getBottomInnerText() {
-        return bottomInnerText;
+        return painter.bottomInnerText;
     }
 
     public void setBottomInnerText(String bottomInnerText) {
-        this.bottomInnerText = bottomInnerText;
-        invalidate();
+        painter.setInnerTexts(painter.leftInnerText, painter.rightInnerText, bottomInnerText);
+        onChanged(CHANGE_DRAW);
     }
 
     public void setBottomInnerText(int bottomInnerTextRes) {
-        this.bottomInnerText = getResources().getString(bottomInnerTextRes);
-        invalidate();
+        painter.setInnerTexts(painter.leftInnerText, painter.rightInnerText, getResources().getString(bottomInnerTextRes));
+        onChanged(CHANGE_DRAW);
     }
 
     public String getLeftOuterText() {
-        return leftOuterText;
+        return painter.leftOuterText;
     }
 
 
@@ -728,25 +775,17 @@ public class CordiformView extends View {
     }
 
     public void setLeftOuterText(int leftOuterTextRes, boolean relayout) {
-        this.leftOuterText = getResources().getString(leftOuterTextRes);
-        if(relayout){
-            requestLayout();
-        }else{
-            invalidate();
-        }
+        painter.setOuterTexts(getResources().getString(leftOuterTextRes), painter.rightOuterText, painter.bottomOuterText);
+        onChanged(relayout ? CHANGE_LAYOUT : CHANGE_DRAW);
     }
 
     public void setLeftOuterText(String leftOuterText, boolean relayout) {
-        this.leftOuterText = leftOuterText;
-        if(relayout){
-            requestLayout();
-        }else{
-            invalidate();
-        }
+        painter.setOuterTexts(leftOuterText, painter.rightOuterText, painter.bottomOuterText);
+        onChanged(relayout ? CHANGE_LAYOUT : CHANGE_DRAW);
     }
 
     public String getRightOuterText() {
-        return rightOuterText;
+        return painter.rightOuterText;
     }
 
     public void setRightOuterText(String rightOuterText) {
@@ -754,12 +793,8 @@ public class CordiformView extends View {
     }
 
     public void setRightOuterText(String rightOuterText, boolean relayout) {
-        this.rightOuterText = rightOuterText;
-        if(relayout){
-            requestLayout();
-        }else{
-            invalidate();
-        }
+        painter.setOuterTexts(painter.leftOuterText, rightOuterText, painter.bottomOuterText);
+        onChanged(relayout ? CHANGE_LAYOUT : CHANGE_DRAW);
     }
 
     public void setRightOuterText(int rightOuterTextRes) {
@@ -767,16 +802,12 @@ public class CordiformView extends View {
     }
 
     public void setRightOuterText(int rightOuterTextRes, boolean relayout) {
-        this.rightOuterText = getResources().getString(rightOuterTextRes);
-        if(relayout){
-            requestLayout();
-        }else{
-            invalidate();
-        }
+        painter.setOuterTexts(painter.leftOuterText, getResources().getString(rightOuterTextRes), painter.bottomOuterText);
+        onChanged(relayout ? CHANGE_LAYOUT : CHANGE_DRAW);
     }
 
     public String getBottomOuterText() {
-        return bottomOuterText;
+        return painter.bottomOuterText;
     }
 
     public void setBottomOuterText(String bottomOuterText) {
@@ -784,12 +815,8 @@ public class CordiformView extends View {
     }
 
     public void setBottomOuterText(String bottomOuterText, boolean relayout) {
-        this.bottomOuterText = bottomOuterText;
-        if(relayout){
-            requestLayout();
-        }else{
-            invalidate();
-        }
+        painter.setOuterTexts(painter.leftOuterText, painter.rightOuterText, bottomOuterText);
+        onChanged(relayout ? CHANGE_LAYOUT : CHANGE_DRAW);
     }
 
     public void setBottomOuterText(int bottomOuterTextRes) {
@@ -797,36 +824,45 @@ public class CordiformView extends View {
     }
 
     public void setBottomOuterText(int bottomOuterTextRes, boolean relayout) {
-        this.bottomOuterText = getResources().getString(bottomOuterTextRes);
-        if(relayout){
-            requestLayout();
-        }else{
-            invalidate();
-        }
+        painter.setOuterTexts(painter.leftOuterText, painter.rightOuterText, getResources().getString(bottomOuterTextRes));
+        onChanged(relayout ? CHANGE_LAYOUT : CHANGE_DRAW);
     }
 
     public float getInnerTextSize() {
-        return innerTextSize;
+        return painter.innerTextSize;
     }
 
     public void setInnerTextSize(float innerTextSize) {
-        if(this.innerTextSize != innerTextSize){
-            this.innerTextSize = innerTextSize;
-            doMath();
-            invalidate();
+        if(painter.innerTextSize != innerTextSize){
+            painter.setInnerTextSize(innerTextSize);
+            onChanged(CHANGE_DRAW);
+        }
+    }
+
+    public float getMinInnerTextSize() {
+        return painter.minInnerTextSize;
+    }
+
+    /**
+     * Inner texts too long for their part are shrunk down to this size first and then ellipsized.
+     * 0, the default, only ellipsizes them.
+     */
+    public void setMinInnerTextSize(float minInnerTextSize) {
+        if(painter.minInnerTextSize != minInnerTextSize){
+            painter.setMinInnerTextSize(minInnerTextSize);
+            onChanged(CHANGE_DRAW);
         }
     }
 
     public float getOuterTextSize() {
-        return outerTextSize;
+        return painter.outerTextSize;
     }
 
 
     public void setOuterTextSize(float outerTextSize) {
-        if(this.outerTextSize != outerTextSize){
-            this.outerTextSize = outerTextSize;
-            outerTextPaint.setTextSize(outerTextSize);
-            requestLayout();
+        if(painter.outerTextSize != outerTextSize){
+            painter.setOuterTextSize(outerTextSize);
+            onChanged(CHANGE_LAYOUT);
         }
     }
 
@@ -837,43 +873,625 @@ public class CordiformView extends View {
     public void setOuterTextOffset(int outerTextOffset) {
         if(this.outerTextOffset != outerTextOffset){
             this.outerTextOffset = outerTextOffset;
-            doMath();
-            invalidate();
+            onChanged(CHANGE_GEOMETRY);
         }
     }
 
     public int getInnerTextColor() {
-        return innerTextColor;
+        return painter.innerTextColor;
     }
 
     public void setInnerTextColor(int innerTextColor) {
-        this.innerTextColor = innerTextColor;
-        innerTextPaint.setColor(innerTextColor);
-        invalidate();
+        painter.setInnerTextColor(innerTextColor);
+        onChanged(CHANGE_DRAW);
+    }
+
+    /**
+     * Start a batched update, e.g. {@code view.edit().progress(l, r, b).colors(...).apply()}.
+     * All changes are applied together, the geometry is recomputed at most once
+     * and at most one invalidate or layout request is issued.
+     * The returned editor is reused by every call of this method, so don't keep it around.
+     */
+    public Editor edit() {
+        if(editor == null){
+            editor = new Editor();
+        }
+        editor.clear();
+        return editor;
+    }
+
+    /**
+     * Show the given state, meant for views recycled in lists. Only properties that differ from
+     * the current ones are applied, so rebinding costs at most one invalidate and allocates nothing.
+     * A running progress animation is canceled.
+     */
+    public void bind(CordiformState state) {
+        cancelProgressAnimation();
+        Editor editor = edit();
+        if(progress[0] != clampProgress(state.getLeftProgress())
+                || progress[1] != clampProgress(state.getRightProgress())
+                || progress[2] != clampProgress(state.getBottomProgress())){
+            editor.progress(state.getLeftProgress(), state.getRightProgress(), state.getBottomProgress());
+        }
+        if(painter.leftArcColor != state.getLeftArcColor()
+                || painter.rightArcColor != state.getRightArcColor()
+                || painter.bottomLineColor != state.getBottomLineColor()){
+            editor.colors(state.getLeftArcColor(), state.getRightArcColor(), state.getBottomLineColor());
+        }
+        if(!TextUtils.equals(painter.leftInnerText, state.getLeftInnerText())
+                || !TextUtils.equals(painter.rightInnerText, state.getRightInnerText())
+                || !TextUtils.equals(painter.bottomInnerText, state.getBottomInnerText())){
+            editor.innerTexts(state.getLeftInnerText(), state.getRightInnerText(), state.getBottomInnerText());
+        }
+        if(!TextUtils.equals(painter.leftOuterText, state.getLeftOuterText())
+                || !TextUtils.equals(painter.rightOuterText, state.getRightOuterText())
+                || !TextUtils.equals(painter.bottomOuterText, state.getBottomOuterText())){
+            editor.outerTexts(state.getLeftOuterText(), state.getRightOuterText(), state.getBottomOuterText());
+        }
+        if(painter.innerTextColor != state.getInnerTextColor()){
+            editor.innerTextColor(state.getInnerTextColor());
+        }
+        if(painter.innerTextSize != state.getInnerTextSize()){
+            editor.innerTextSize(state.getInnerTextSize());
+        }
+        if(painter.minInnerTextSize != state.getMinInnerTextSize()){
+            editor.minInnerTextSize(state.getMinInnerTextSize());
+        }
+        if(painter.outerTextSize != state.getOuterTextSize()){
+            editor.outerTextSize(state.getOuterTextSize());
+        }
+        if(outerTextOffset != state.getOuterTextOffset()){
+            editor.outerTextOffset(state.getOuterTextOffset());
+        }
+        if(strokeWidth != state.getStrokeWidth()){
+            editor.strokeWidth(state.getStrokeWidth());
+        }
+        if(painter.shadowRadius != state.getShadowRadius()
+                || painter.shadowDx != state.getShadowDx()
+                || painter.shadowDy != state.getShadowDy()
+                || painter.shadowColor != state.getShadowColor()){
+            editor.shadow(state.getShadowRadius(), state.getShadowDx(), state.getShadowDy(), state.getShadowColor());
+        }
+        editor.apply();
+    }
+
+    /**
+     * Copy what the view currently shows into {@code outState}, e.g. to use it as template of a list.
+     */
+    public CordiformState getState(CordiformState outState) {
+        return outState.setProgress(progress[0], progress[1], progress[2])
+                .setColors(painter.leftArcColor, painter.rightArcColor, painter.bottomLineColor)
+                .setInnerTexts(painter.leftInnerText, painter.rightInnerText, painter.bottomInnerText)
+                .setOuterTexts(painter.leftOuterText, painter.rightOuterText, painter.bottomOuterText)
+                .setInnerTextColor(painter.innerTextColor)
+                .setInnerTextSize(painter.innerTextSize)
+                .setMinInnerTextSize(painter.minInnerTextSize)
+                .setOuterTextSize(painter.outerTextSize)
+                .setOuterTextOffset(outerTextOffset)
+                .setStrokeWidth(strokeWidth)
+                .setShadow(painter.shadowRadius, painter.shadowDx, painter.shadowDy, painter.shadowColor);
+    }
+
+    /**
+     * Build the geometry this view would need for {@code state} at the given size on {@code executor},
+     * so that a later {@link #bind(CordiformState)} and layout of a view with the same paddings
+     * finds it in the shared cache instead of computing it on the UI thread.
+     */
+    public void prefetchGeometry(CordiformState state, int width, int height, Executor executor) {
+        final HeartMetrics.Key key = new HeartMetrics.Key().set(width, height,
+                getPaddingStart(), getPaddingTop(), getPaddingEnd(), getPaddingBottom(),
+                state.getStrokeWidth(), state.getShadowRadius(), state.getShadowDx(), state.getShadowDy(),
+                state.getOuterTextSize(), state.getOuterTextOffset());
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                CordiformGeometry.obtain(key);
+            }
+        });
     }
 
-    private int parseToDarkColor(int color){
-        int r = Color.red(color);
-        int g = Color.green(color);
-        int b = Color.blue(color);
-        return Color.argb(Color.alpha(color), (int)(r * 0.3), (int)(g * 0.3), (int)(b * 0.3));
+    private void onChanged(int changes){
+        if(batchingChanges){
+            pendingChanges |= changes;
+            return;
+        }
+        if(changes == 0){
+            return;
+        }
+
+        //the outer text size is part of the geometry as well
+        if((changes & (CHANGE_GEOMETRY | CHANGE_LAYOUT)) != 0){
+            geometryDirty = true;
+        }
+        if((changes & CHANGE_LAYOUT) != 0){
+            requestLayout();
+            invalidate();
+        }else if((changes & ~CHANGE_PROGRESS) != 0 || !painter.hasGeometry() || geometryDirty){
+            invalidate();
+        }else{
+            invalidateProgress(changes);
+        }
     }
 
-    private String getString(TypedArray a, int attr){
-        int res = a.getResourceId(attr, 0);
-        if(res != 0){
-            return getResources().getString(res);
+    /**
+     * Invalidate only the bounds of the parts the segments whose progress changed run along.
+     * Only software rendering clips the next frame to them, hardware rendering redraws the whole view.
+     */
+    @SuppressWarnings("deprecation")
+    private void invalidateProgress(int changes){
+        CordiformGeometry g = painter.getGeometry();
+        CordiformSegments segments = painter.segments;
+        int parts = 0;
+        for(int i = 0; i < segments.count; i++){
+            if((changes & (CHANGE_SEGMENT_PROGRESS << i)) != 0){
+                parts |= segments.parts[i];
+            }
+        }
+        damageRect.setEmpty();
+        if((parts & CordiformSegments.PART_LEFT) != 0){
+            damageRect.union(g.leftDamageRect);
+        }
+        if((parts & CordiformSegments.PART_RIGHT) != 0){
+            damageRect.union(g.rightDamageRect);
+        }
+        if((parts & CordiformSegments.PART_BOTTOM) != 0){
+            damageRect.union(g.bottomDamageRect);
+        }
+        if(statsRecorder != null && statsRecorder.isStatsEnabled()){
+            statsRecorder.onInvalidate();
+        }
+        //deprecated because hardware rendering ignores the rect, software layers and windows still honor it
+        if(getLayerType() == View.LAYER_TYPE_SOFTWARE || !isHardwareAccelerated()){
+            invalidate(damageRect);
         }else{
-            return a.getString(attr);
+            super.invalidate();
         }
     }
 
+    @Override
+    public void invalidate() {
+        if(statsRecorder != null && statsRecorder.isStatsEnabled()){
+            statsRecorder.onInvalidate();
+        }
+        super.invalidate();
+    }
+
+    public boolean isRenderStatsEnabled() {
+        return statsRecorder != null && statsRecorder.isStatsEnabled();
+    }
+
+    /**
+     * Collect draw count, per-phase timings and invalidation rate, see {@link #getRenderStats()}.
+     * Nothing is measured while both stats and tracing are disabled.
+     */
+    public void setRenderStatsEnabled(boolean enabled) {
+        obtainStatsRecorder().setStatsEnabled(enabled);
+        releaseStatsRecorderIfIdle();
+    }
+
+    public boolean isTraceEnabled() {
+        return statsRecorder != null && statsRecorder.isTraceEnabled();
+    }
+
+    /**
+     * Wrap every render phase into an {@link android.os.Trace} section, available since API 18.
+     */
+    public void setTraceEnabled(boolean enabled) {
+        obtainStatsRecorder().setTraceEnabled(enabled);
+        releaseStatsRecorderIfIdle();
+    }
+
+    /**
+     * @return snapshot of the metrics collected so far, or null if render stats are disabled
+     */
+    @Nullable
+    public RenderStats getRenderStats() {
+        return isRenderStatsEnabled() ? statsRecorder.snapshot() : null;
+    }
+
+    public void resetRenderStats() {
+        if(statsRecorder != null){
+            statsRecorder.reset();
+        }
+    }
+
+    public boolean isProgressDraggable() {
+        return progressDraggable;
+    }
+
+    /**
+     * Let the user set the progress of a segment by touching and dragging along it, like a SeekBar.
+     * A drag sticks to the segment it started on.
+     */
+    public void setProgressDraggable(boolean progressDraggable) {
+        this.progressDraggable = progressDraggable;
+        if(!progressDraggable){
+            endDrag();
+        }
+    }
+
+    public void setOnProgressDragListener(@Nullable OnProgressDragListener listener) {
+        this.onProgressDragListener = listener;
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if(!progressDraggable || !isEnabled()){
+            return super.onTouchEvent(event);
+        }
+        switch (event.getActionMasked()){
+            case MotionEvent.ACTION_DOWN: {
+                doMath();
+                float fraction = touchedFraction(event);
+                if(fraction == HeartTouchMap.NONE){
+                    return super.onTouchEvent(event);
+                }
+                dragSegment = segmentAt(fraction);
+                ViewParent parent = getParent();
+                if(parent != null){
+                    parent.requestDisallowInterceptTouchEvent(true);
+                }
+                queueDraggedProgress(fraction);
+                return true;
+            }
+            case MotionEvent.ACTION_MOVE:
+                if(dragSegment < 0){
+                    return super.onTouchEvent(event);
+                }
+                float fraction = touchedFraction(event);
+                //off the stroke the last value is kept
+                if(fraction != HeartTouchMap.NONE){
+                    queueDraggedProgress(fraction);
+                }
+                return true;
+            case MotionEvent.ACTION_UP:
+                if(dragSegment < 0){
+                    return super.onTouchEvent(event);
+                }
+                endDrag();
+                performClick();
+                return true;
+            case MotionEvent.ACTION_CANCEL:
+                endDrag();
+                return super.onTouchEvent(event);
+            default:
+                return dragSegment >= 0 || super.onTouchEvent(event);
+        }
+    }
+
+    @Override
+    public boolean performClick() {
+        return super.performClick();
+    }
+
+    private float touchedFraction(MotionEvent event){
+        if(!painter.hasGeometry()){
+            return HeartTouchMap.NONE;
+        }
+        return painter.getGeometry().getTouchMap().fractionAt(event.getX(), event.getY());
+    }
+
+    private int segmentAt(float fraction){
+        CordiformSegments segments = painter.segments;
+        for(int i = 0; i < segments.count - 1; i++){
+            if(fraction < segments.bounds[i + 1]){
+                return i;
+            }
+        }
+        return segments.count - 1;
+    }
+
+    /**
+     * Keep the progress the fraction means for the dragged segment, it is applied with the next frame.
+     */
+    private void queueDraggedProgress(float fraction){
+        CordiformSegments segments = painter.segments;
+        if(dragSegment >= segments.count){
+            return;
+        }
+        float start = segments.bounds[dragSegment];
+        float end = segments.bounds[dragSegment + 1];
+        if(fraction >= start && fraction <= end){
+            dragProgress = FULL_PROGRESS * (fraction - start) / (end - start);
+        }else{
+            //the outline is closed, outside the segment it is full or empty, whichever end is nearer
+            float beforeStart = (start - fraction + 1) % 1;
+            float afterEnd = (fraction - end + 1) % 1;
+            dragProgress = beforeStart < afterEnd ? 0 : FULL_PROGRESS;
+        }
+        if(!dragScheduled){
+            dragScheduled = true;
+            postOnAnimation(applyDrag);
+        }
+    }
+
+    private void applyDraggedProgress(){
+        if(dragSegment < 0 || dragSegment >= painter.segments.count){
+            return;
+        }
+        float before = progress[dragSegment];
+        setSegmentProgress(dragSegment, dragProgress);
+        if(progress[dragSegment] != before && onProgressDragListener != null){
+            onProgressDragListener.onProgressDragged(this, dragSegment, progress[dragSegment]);
+        }
+    }
+
+    /**
+     * Apply what is left of a drag right away and stop it.
+     */
+    private void endDrag(){
+        if(dragScheduled){
+            dragScheduled = false;
+            removeCallbacks(applyDrag);
+            applyDraggedProgress();
+        }
+        dragSegment = -1;
+    }
+
+    /**
+     * The listener is notified with a fresh snapshot about once per second while render stats are enabled.
+     */
+    public void setOnRenderStatsListener(@Nullable OnRenderStatsListener listener) {
+        this.onRenderStatsListener = listener;
+    }
+
+    private RenderStatsRecorder obtainStatsRecorder(){
+        if(statsRecorder == null){
+            statsRecorder = new RenderStatsRecorder();
+        }
+        return statsRecorder;
+    }
+
+    private void releaseStatsRecorderIfIdle(){
+        if(statsRecorder != null && !statsRecorder.isActive()){
+            statsRecorder = null;
+        }
+    }
+
+    public int getRenderMode() {
+        return renderMode;
+    }
+
+    /**
+     * @param renderMode {@link #RENDER_MODE_SOFTWARE} or {@link #RENDER_MODE_HARDWARE}
+     */
+    public void setRenderMode(int renderMode) {
+        if(this.renderMode != renderMode){
+            this.renderMode = renderMode;
+            applyRenderMode();
+            invalidate();
+        }
+    }
+
+    /**
+     * @param executor runs the blur of the shadow whenever the size or the shadow changes,
+     *                 {@link AsyncTask#THREAD_POOL_EXECUTOR} by default
+     */
+    public void setShadowExecutor(Executor executor) {
+        shadowExecutor = executor;
+    }
+
+    private static float clampProgress(float progress){
+        //also maps NaN to 0
+        return progress > 0 ? Math.min(progress, FULL_PROGRESS) : 0;
+    }
+
     private int calActualPaddingVertical(){
-        return getPaddingTop() + getPaddingBottom()  + strokeWidth + 2 * (int)Math.max((float)shadowRadius, (outerTextSize * TEXT_HEIGHT_SCALE) + outerTextOffset);
+        return getPaddingTop() + getPaddingBottom()  + strokeWidth + 2 * (int)Math.max((float) painter.shadowRadius, (painter.outerTextSize * TEXT_HEIGHT_SCALE) + outerTextOffset);
     }
 
     private int calActualPaddingHorizontal(){
-        return getPaddingStart() + getPaddingEnd() + strokeWidth + 2 * (int)Math.max((float) shadowRadius, (outerTextSize * TEXT_HEIGHT_SCALE) + outerTextOffset);
+        return getPaddingStart() + getPaddingEnd() + strokeWidth + 2 * (int)Math.max((float) painter.shadowRadius, (painter.outerTextSize * TEXT_HEIGHT_SCALE) + outerTextOffset);
+    }
+
+    /**
+     * Collects property changes and applies them in one go, see {@link #edit()}.
+     */
+    public final class Editor {
+        private final static int SET_PROGRESS = 1;
+        private final static int SET_COLORS = 1 << 1;
+        private final static int SET_INNER_TEXTS = 1 << 2;
+        private final static int SET_OUTER_TEXTS = 1 << 3;
+        private final static int SET_INNER_TEXT_SIZE = 1 << 4;
+        private final static int SET_OUTER_TEXT_SIZE = 1 << 5;
+        private final static int SET_OUTER_TEXT_OFFSET = 1 << 6;
+        private final static int SET_INNER_TEXT_COLOR = 1 << 7;
+        private final static int SET_STROKE_WIDTH = 1 << 8;
+        private final static int SET_SHADOW = 1 << 9;
+        private final static int SET_MIN_INNER_TEXT_SIZE = 1 << 10;
+
+        private int set;
+
+        private float leftProgress;
+        private float rightProgress;
+        private float bottomProgress;
+
+        private int leftArcColor;
+        private int rightArcColor;
+        private int bottomLineColor;
+
+        private String leftInnerText;
+        private String rightInnerText;
+        private String bottomInnerText;
+
+        private String leftOuterText;
+        private String rightOuterText;
+        private String bottomOuterText;
+        private boolean relayout;
+
+        private float innerTextSize;
+        private float minInnerTextSize;
+        private float outerTextSize;
+        private int outerTextOffset;
+        private int innerTextColor;
+        private int strokeWidth;
+
+        private int shadowRadius;
+        private int shadowDx;
+        private int shadowDy;
+        private int shadowColor;
+
+        private Editor() {
+        }
+
+        public Editor progress(int left, int right, int bottom) {
+            return progress((float) (left % MAX_PROGRESS), right % MAX_PROGRESS, bottom % MAX_PROGRESS);
+        }
+
+        public Editor progress(float left, float right, float bottom) {
+            leftProgress = left;
+            rightProgress = right;
+            bottomProgress = bottom;
+            set |= SET_PROGRESS;
+            return this;
+        }
+
+        public Editor colors(int leftArcColor, int rightArcColor, int bottomLineColor) {
+            this.leftArcColor = leftArcColor;
+            this.rightArcColor = rightArcColor;
+            this.bottomLineColor = bottomLineColor;
+            set |= SET_COLORS;
+            return this;
+        }
+
+        public Editor innerTexts(String left, String right, String bottom) {
+            leftInnerText = left;
+            rightInnerText = right;
+            bottomInnerText = bottom;
+            set |= SET_INNER_TEXTS;
+            return this;
+        }
+
+        public Editor outerTexts(String left, String right, String bottom) {
+            return outerTexts(left, right, bottom, false);
+        }
+
+        public Editor outerTexts(String left, String right, String bottom, boolean relayout) {
+            leftOuterText = left;
+            rightOuterText = right;
+            bottomOuterText = bottom;
+            this.relayout = relayout;
+            set |= SET_OUTER_TEXTS;
+            return this;
+        }
+
+        public Editor innerTextSize(float innerTextSize) {
+            this.innerTextSize = innerTextSize;
+            set |= SET_INNER_TEXT_SIZE;
+            return this;
+        }
+
+        public Editor minInnerTextSize(float minInnerTextSize) {
+            this.minInnerTextSize = minInnerTextSize;
+            set |= SET_MIN_INNER_TEXT_SIZE;
+            return this;
+        }
+
+        public Editor outerTextSize(float outerTextSize) {
+            this.outerTextSize = outerTextSize;
+            set |= SET_OUTER_TEXT_SIZE;
+            return this;
+        }
+
+        public Editor outerTextOffset(int outerTextOffset) {
+            this.outerTextOffset = outerTextOffset;
+            set |= SET_OUTER_TEXT_OFFSET;
+            return this;
+        }
+
+        public Editor innerTextColor(int innerTextColor) {
+            this.innerTextColor = innerTextColor;
+            set |= SET_INNER_TEXT_COLOR;
+            return this;
+        }
+
+        public Editor strokeWidth(int strokeWidth) {
+            this.strokeWidth = strokeWidth;
+            set |= SET_STROKE_WIDTH;
+            return this;
+        }
+
+        public Editor shadow(int radius, int dx, int dy, int color) {
+            shadowRadius = radius;
+            shadowDx = dx;
+            shadowDy = dy;
+            shadowColor = color;
+            set |= SET_SHADOW;
+            return this;
+        }
+
+        /**
+         * Apply every collected change, then recompute, invalidate or relayout the view once.
+         */
+        public void apply() {
+            batchingChanges = true;
+            pendingChanges = 0;
+            try {
+                if((set & SET_PROGRESS) != 0){
+                    setProgress(leftProgress, rightProgress, bottomProgress);
+                }
+                if((set & SET_COLORS) != 0){
+                    setLeftArcColor(leftArcColor);
+                    setRightArcColor(rightArcColor);
+                    setBottomLineColor(bottomLineColor);
+                }
+                if((set & SET_INNER_TEXTS) != 0){
+                    setLeftInnerText(leftInnerText);
+                    setRightInnerText(rightInnerText);
+                    setBottomInnerText(bottomInnerText);
+                }
+                if((set & SET_OUTER_TEXTS) != 0){
+                    setLeftOuterText(leftOuterText, relayout);
+                    setRightOuterText(rightOuterText, relayout);
+                    setBottomOuterText(bottomOuterText, relayout);
+                }
+                if((set & SET_INNER_TEXT_SIZE) != 0){
+                    setInnerTextSize(innerTextSize);
+                }
+                if((set & SET_MIN_INNER_TEXT_SIZE) != 0){
+                    setMinInnerTextSize(minInnerTextSize);
+                }
+                if((set & SET_OUTER_TEXT_SIZE) != 0){
+                    setOuterTextSize(outerTextSize);
+                }
+                if((set & SET_OUTER_TEXT_OFFSET) != 0){
+                    setOuterTextOffset(outerTextOffset);
+                }
+                if((set & SET_INNER_TEXT_COLOR) != 0){
+                    setInnerTextColor(innerTextColor);
+                }
+                if((set & SET_STROKE_WIDTH) != 0){
+                    setStrokeWidth(strokeWidth);
+                }
+                if((set & SET_SHADOW) != 0){
+                    setShadowColor(shadowColor);
+                    setShadowDx(shadowDx);
+                    setShadowDy(shadowDy);
+                    setShadowRadius(shadowRadius);
+                }
+            } finally {
+                batchingChanges = false;
+                clear();
+            }
+            onChanged(pendingChanges);
+        }
+
+        private void clear() {
+            set = 0;
+            leftInnerText = rightInnerText = bottomInnerText = null;
+            leftOuterText = rightOuterText = bottomOuterText = null;
+        }
+    }
+
+    public interface OnRenderStatsListener {
+        void onRenderStats(CordiformView view, RenderStats stats);
+    }
+
+    public interface OnProgressDragListener {
+        /**
+         * @param segment 0, 1 and 2 are left, right and bottom with {@link CordiformSegments#threeParts()}
+         */
+        void onProgressDragged(CordiformView view, int segment, float progress);
     }
 
 }
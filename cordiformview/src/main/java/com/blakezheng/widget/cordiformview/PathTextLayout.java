@@ -0,0 +1,299 @@
+/*
+ * Copyright 2019 Blake Zheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blakezheng.widget.cordiformview;
+
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.PathMeasure;
+import android.graphics.Typeface;
+import android.text.TextUtils;
+
+import androidx.annotation.Nullable;
+
+/**
+ * Text laid out along a path once, close to the way {@link Canvas#drawTextOnPath} places it:
+ * the advances of the whole run, kerning included, place each cluster, i.e. a glyph with its marks,
+ * a ligature or a surrogate pair, and the outline of each cluster is shaped on its own. Each cluster is
+ * rotated as a whole by the tangent of the path at its middle, where drawTextOnPath bends the outlines
+ * along the path, which is only visible on glyphs that are large for the curvature of the path.
+ * All glyph outlines are collected into a single path, so drawing is one {@link Canvas#drawPath} call
+ * without measuring the path or shaping the text again.
+ * <p>
+ * Clusters shaped on their own lose their joining and reordering and are placed in logical order,
+ * so text with right-to-left runs or in a script that joins or reorders its glyphs, see
+ * {@link #needsRunShaping(String)}, is drawn with drawTextOnPath, which shapes the run as a whole.
+ * <p>
+ * Laying out the same text along the same path with an unchanged paint again is skipped,
+ * so the texts cost nothing as long as only the progresses change.
+ */
+class PathTextLayout {
+    private final static String ELLIPSIS = "\u2026";
+
+    private final Path textPath = new Path();
+    private final Path glyphPath = new Path();
+    private final PathMeasure pathMeasure;
+    private final Matrix matrix = new Matrix();
+    private final float[] pos = new float[2];
+    private final float[] tan = new float[2];
+    private float[] widths = new float[16];
+    private boolean empty = true;
+    //drawn with drawTextOnPath at the offsets of the layout
+    private boolean shapedOnPath;
+    private float laidOutHOffset;
+    private float laidOutVOffset;
+
+    //inputs of the last layout
+    private String lastText;
+    private Path lastPath;
+    private float lastHOffset;
+    private float lastVOffset;
+    private float lastTextSize;
+    private float lastMinTextSize;
+    private Typeface lastTypeface;
+    private Paint.Align lastAlign;
+    private boolean lastFit;
+
+    //what was actually laid out, fitted texts may be shrunk or ellipsized
+    private String laidOutText;
+    private float laidOutTextSize;
+
+    PathTextLayout() {
+        this(new PathMeasure());
+    }
+
+    /**
+     * Measure paths with the given measure, the test graphics only measure paths handed to the constructor
+     * of a {@link PathMeasure}. Tests only.
+     */
+    PathTextLayout(PathMeasure pathMeasure) {
+        this.pathMeasure = pathMeasure;
+    }
+
+    /**
+     * @param paint text paint whose size, typeface and align are used, its align is left unchanged
+     */
+    void layout(@Nullable String text, Path path, float hOffset, float vOffset, Paint paint) {
+        layout(text, path, hOffset, vOffset, paint, paint.getTextSize(), false);
+    }
+
+    /**
+     * Like {@link #layout(String, Path, float, float, Paint)} but the text must not run past the end of the path:
+     * a text that is too long is shrunk, but not below {@code minTextSize}, and ellipsized if that is not enough.
+     * {@code vOffset} is scaled along with the text size.
+     *
+     * @param paint text paint whose size, typeface and align are used, its size and align are left unchanged
+     */
+    void layoutFitted(@Nullable String text, Path path, float hOffset, float vOffset, Paint paint, float minTextSize) {
+        layout(text, path, hOffset, vOffset, paint, minTextSize, true);
+    }
+
+    private void layout(@Nullable String text, Path path, float hOffset, float vOffset, Paint paint,
+                        float minTextSize, boolean fit) {
+        float textSize = paint.getTextSize();
+        if(isLaidOut(text, path, hOffset, vOffset, paint, minTextSize, fit)){
+            return;
+        }
+        lastText = text;
+        lastPath = path;
+        lastHOffset = hOffset;
+        lastVOffset = vOffset;
+        lastTextSize = textSize;
+        lastMinTextSize = minTextSize;
+        lastTypeface = paint.getTypeface();
+        lastAlign = paint.getTextAlign();
+        lastFit = fit;
+
+        textPath.reset();
+        shapedOnPath = false;
+        laidOutText = text;
+        laidOutTextSize = textSize;
+        empty = TextUtils.isEmpty(text);
+        if(empty){
+            return;
+        }
+
+        pathMeasure.setPath(path, false);
+        float available = pathMeasure.getLength() - hOffset;
+        //a path without length is not measured, e.g. that of an empty geometry
+        if(fit && available > 0){
+            float advance = paint.measureText(text);
+            if(advance > available){
+                if(minTextSize < textSize){
+                    //advances grow linearly with the text size
+                    laidOutTextSize = Math.max(minTextSize, textSize * available / advance);
+                    paint.setTextSize(laidOutTextSize);
+                    vOffset *= laidOutTextSize / textSize;
+                }
+                laidOutText = ellipsize(text, available, paint);
+            }
+        }
+        if(TextUtils.isEmpty(laidOutText)){
+            empty = true;
+        }else if(needsRunShaping(laidOutText)){
+            shapedOnPath = true;
+            laidOutHOffset = hOffset;
+            laidOutVOffset = vOffset;
+        }else{
+            layoutGlyphs(laidOutText, hOffset, vOffset, paint);
+        }
+        paint.setTextSize(textSize);
+    }
+
+    private boolean isLaidOut(@Nullable String text, Path path, float hOffset, float vOffset, Paint paint,
+                              float minTextSize, boolean fit) {
+        return TextUtils.equals(text, lastText)
+                && path == lastPath
+                && hOffset == lastHOffset
+                && vOffset == lastVOffset
+                && paint.getTextSize() == lastTextSize
+                && minTextSize == lastMinTextSize
+                && paint.getTypeface() == lastTypeface
+                && paint.getTextAlign() == lastAlign
+                && fit == lastFit;
+    }
+
+    /**
+     * @return {@code text} if it fits into {@code available}, else as much of it as fits followed by an ellipsis
+     */
+    private static String ellipsize(String text, float available, Paint paint) {
+        if(paint.measureText(text) <= available){
+            return text;
+        }
+        float ellipsisWidth = paint.measureText(ELLIPSIS);
+        if(ellipsisWidth > available){
+            return "";
+        }
+        int count = paint.breakText(text, true, available - ellipsisWidth, null);
+        //back off to a code point boundary, never split a surrogate pair
+        if(count > 0 && count < text.length()
+                && Character.isHighSurrogate(text.charAt(count - 1)) && Character.isLowSurrogate(text.charAt(count))){
+            count--;
+        }
+        return text.substring(0, count) + ELLIPSIS;
+    }
+
+    /**
+     * @return whether the text has a right-to-left run or a script whose glyphs join or reorder,
+     * which clusters shaped on their own and placed in logical order would break
+     */
+    static boolean needsRunShaping(String text) {
+        for(int i = 0; i < text.length(); ){
+            int c = text.codePointAt(i);
+            switch(Character.getDirectionality(c)){
+                case Character.DIRECTIONALITY_RIGHT_TO_LEFT:
+                case Character.DIRECTIONALITY_RIGHT_TO_LEFT_ARABIC:
+                case Character.DIRECTIONALITY_RIGHT_TO_LEFT_EMBEDDING:
+                case Character.DIRECTIONALITY_RIGHT_TO_LEFT_OVERRIDE:
+                    return true;
+            }
+            if(isComplexScript(c)){
+                return true;
+            }
+            i += Character.charCount(c);
+        }
+        return false;
+    }
+
+    /**
+     * Left-to-right scripts shaped by context, joining controls included.
+     */
+    private static boolean isComplexScript(int c) {
+        return (c >= 0x0900 && c < 0x0E00) //Devanagari to Sinhala
+                || (c >= 0x0F00 && c < 0x10A0) //Tibetan, Myanmar
+                || (c >= 0x1780 && c < 0x18B0) //Khmer, Mongolian
+                || (c >= 0x1A00 && c < 0x1B80) //Buginese to Balinese
+                || (c >= 0xA800 && c < 0xAAE0) //Syloti Nagri to Myanmar extended
+                || (c >= 0x11000 && c < 0x11200) //Brahmi to Khojki
+                || c == 0x200C || c == 0x200D; //zero width non-joiner and joiner
+    }
+
+    private void layoutGlyphs(String text, float hOffset, float vOffset, Paint paint) {
+        int length = text.length();
+        if(widths.length < length){
+            widths = new float[length];
+        }
+        paint.getTextWidths(text, 0, length, widths);
+
+        Paint.Align align = paint.getTextAlign();
+        if(align != Paint.Align.LEFT){
+            float advance = paint.measureText(text);
+            float ratio = align == Paint.Align.CENTER ? 0.5f : 1f;
+            hOffset += ratio * (pathMeasure.getLength() - advance);
+        }
+
+        //glyph outlines have to start at their own origin
+        paint.setTextAlign(Paint.Align.LEFT);
+        float x = hOffset;
+        int start = 0;
+        while(start < length){
+            float advance = widths[start];
+            int end = start + 1;
+            //marks, the rest of a ligature and low surrogates add no advance of their own
+            while(end < length && widths[end] == 0){
+                end++;
+            }
+            if(!pathMeasure.getPosTan(x + advance / 2, pos, tan)){
+                pos[0] = pos[1] = 0;
+                tan[0] = 1;
+                tan[1] = 0;
+            }
+            //shaped on its own, a cluster keeps its ligatures and mark positions
+            paint.getTextPath(text, start, end, -advance / 2, 0, glyphPath);
+            matrix.setSinCos(tan[1], tan[0]);
+            matrix.postTranslate(pos[0] - tan[1] * vOffset, pos[1] + tan[0] * vOffset);
+            textPath.addPath(glyphPath, matrix);
+
+            x += advance;
+            start = end;
+        }
+        paint.setTextAlign(align);
+    }
+
+    /**
+     * @param paint the paint of the layout, only its size may have changed since
+     */
+    void draw(Canvas canvas, Paint paint) {
+        if(empty){
+            return;
+        }
+        if(shapedOnPath){
+            float textSize = paint.getTextSize();
+            paint.setTextSize(laidOutTextSize);
+            canvas.drawTextOnPath(laidOutText, lastPath, laidOutHOffset, laidOutVOffset, paint);
+            paint.setTextSize(textSize);
+        }else{
+            canvas.drawPath(textPath, paint);
+        }
+    }
+
+    boolean isEmpty() {
+        return empty;
+    }
+
+    /**
+     * @return the text as laid out, shorter than the given one if it was ellipsized
+     */
+    @Nullable
+    String getLaidOutText() {
+        return laidOutText;
+    }
+
+    float getLaidOutTextSize() {
+        return laidOutTextSize;
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2019 Blake Zheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blakezheng.widget.cordiformview;
+
+import android.animation.TimeInterpolator;
+import android.view.Choreographer;
+
+import androidx.annotation.Nullable;
+
+/**
+ * Animates the three progress values of a {@link CordiformView} from a single vsync callback.
+ * Nothing is allocated per frame and the view is updated once per frame for all three parts.
+ * Must be used from the UI thread.
+ */
+class ProgressAnimator implements Choreographer.FrameCallback {
+    private final CordiformView target;
+
+    private float fromLeft;
+    private float fromRight;
+    private float fromBottom;
+    private float toLeft;
+    private float toRight;
+    private float toBottom;
+    private float currentLeft;
+    private float currentRight;
+    private float currentBottom;
+
+    private long durationNanos;
+    private long startNanos;
+    @Nullable
+    private TimeInterpolator interpolator;
+    private boolean running;
+
+    ProgressAnimator(CordiformView target) {
+        this.target = target;
+    }
+
+    /**
+     * Animate from the current values to the given ones. While running the animation is retargeted
+     * and continues from wherever it currently is, without jumping back.
+     *
+     * @param interpolator null for linear
+     */
+    void start(float left, float right, float bottom, long durationMs, @Nullable TimeInterpolator interpolator) {
+        if(running){
+            fromLeft = currentLeft;
+            fromRight = currentRight;
+            fromBottom = currentBottom;
+        }else{
+            fromLeft = currentLeft = target.getAnimatedLeft();
+            fromRight = currentRight = target.getAnimatedRight();
+            fromBottom = currentBottom = target.getAnimatedBottom();
+        }
+        toLeft = left;
+        toRight = right;
+        toBottom = bottom;
+        durationNanos = Math.max(durationMs, 0) * 1000000L;
+        this.interpolator = interpolator;
+        //the clock starts at the next frame so the first frame is never skipped
+        startNanos = -1;
+        if(!running){
+            running = true;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+
+    /**
+     * Stop where the animation currently is.
+     */
+    void cancel() {
+        if(running){
+            running = false;
+            Choreographer.getInstance().removeFrameCallback(this);
+        }
+    }
+
+    /**
+     * Stop and jump to the target values.
+     */
+    void end() {
+        if(running){
+            cancel();
+            target.onAnimatedProgress(toLeft, toRight, toBottom);
+        }
+    }
+
+    boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if(running && step(frameTimeNanos)){
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+
+    /**
+     * Move the view to where the animation is at the given frame time, without asking for the next frame.
+     *
+     * @return whether the animation goes on
+     */
+    boolean step(long frameTimeNanos) {
+        if(startNanos < 0){
+            startNanos = frameTimeNanos;
+        }
+
+        float fraction = durationNanos > 0 ? (float) (frameTimeNanos - startNanos) / durationNanos : 1f;
+        if(fraction >= 1f){
+            fraction = 1f;
+            running = false;
+        }
+        if(interpolator != null){
+            fraction = interpolator.getInterpolation(fraction);
+        }
+
+        currentLeft = fromLeft + (toLeft - fromLeft) * fraction;
+        currentRight = fromRight + (toRight - fromRight) * fraction;
+        currentBottom = fromBottom + (toBottom - fromBottom) * fraction;
+        target.onAnimatedProgress(currentLeft, currentRight, currentBottom);
+        //the view may have cancelled it
+        return running;
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2019 Blake Zheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blakezheng.widget.cordiformview;
+
+import android.view.Choreographer;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread-safe entry for progress values of a {@link CordiformView} that change faster than frames are drawn,
+ * e.g. from sensor or network threads. Any thread may publish, the view takes only the latest values
+ * once per vsync and everything published in between is dropped. Publishing neither allocates nor locks.
+ * <p>
+ * Obtain it with {@link CordiformView#getProgressSink()} on the UI thread. Progress setters of the view
+ * cancel nothing here, whatever is applied last wins.
+ */
+public final class ProgressSink {
+    //each value is stored as ten thousandths of a percent in 21 bits, all bits set means unchanged
+    private final static int BITS = 21;
+    private final static long MASK = (1L << BITS) - 1;
+    private final static long UNCHANGED = MASK;
+    private final static long NOTHING_PENDING = -1L;
+    private final static float SCALE = 10000f;
+
+    private final static int LEFT_SHIFT = 0;
+    private final static int RIGHT_SHIFT = BITS;
+    private final static int BOTTOM_SHIFT = 2 * BITS;
+    private final static long ALL_UNCHANGED = UNCHANGED << LEFT_SHIFT | UNCHANGED << RIGHT_SHIFT | UNCHANGED << BOTTOM_SHIFT;
+
+    private final CordiformView target;
+    private final Choreographer choreographer;
+    private final AtomicLong pending = new AtomicLong(NOTHING_PENDING);
+
+    private final Choreographer.FrameCallback frameCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            apply(pending.getAndSet(NOTHING_PENDING));
+        }
+    };
+
+    ProgressSink(CordiformView target) {
+        this.target = target;
+        //frame callbacks may be posted from any thread, the instance has to be the one of the UI thread
+        choreographer = Choreographer.getInstance();
+    }
+
+    /**
+     * Show the given progress of all three parts with the next frame, values are clamped to [0, 100].
+     */
+    public void publish(float left, float right, float bottom) {
+        merge(pack(left) << LEFT_SHIFT | pack(right) << RIGHT_SHIFT | pack(bottom) << BOTTOM_SHIFT, 0);
+    }
+
+    public void publishLeft(float left) {
+        merge(pack(left) << LEFT_SHIFT, MASK << LEFT_SHIFT);
+    }
+
+    public void publishRight(float right) {
+        merge(pack(right) << RIGHT_SHIFT, MASK << RIGHT_SHIFT);
+    }
+
+    public void publishBottom(float bottom) {
+        merge(pack(bottom) << BOTTOM_SHIFT, MASK << BOTTOM_SHIFT);
+    }
+
+    /**
+     * Replace the bits in {@code mask} of what is pending, all of them for a mask of 0,
+     * and ask for a frame if nothing was pending yet.
+     */
+    private void merge(long values, long mask) {
+        long previous;
+        long next;
+        do {
+            previous = pending.get();
+            long base = previous == NOTHING_PENDING ? ALL_UNCHANGED : previous;
+            next = mask == 0 ? values : (base & ~mask) | values;
+        } while (!pending.compareAndSet(previous, next));
+
+        if(previous == NOTHING_PENDING){
+            choreographer.postFrameCallback(frameCallback);
+        }
+    }
+
+    private void apply(long values) {
+        if(values == NOTHING_PENDING){
+            return;
+        }
+        target.setProgress(unpack(values >>> LEFT_SHIFT, target.getAnimatedLeft()),
+                unpack(values >>> RIGHT_SHIFT, target.getAnimatedRight()),
+                unpack(values >>> BOTTOM_SHIFT, target.getAnimatedBottom()));
+    }
+
+    private static long pack(float progress) {
+        //also maps NaN to 0
+        return progress > 0 ? Math.round(Math.min(progress, HeartMetrics.FULL_PROGRESS) * SCALE) : 0;
+    }
+
+    private static float unpack(long bits, float current) {
+        bits &= MASK;
+        return bits == UNCHANGED ? current : bits / SCALE;
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2019 Blake Zheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blakezheng.widget.cordiformview;
+
+/**
+ * Immutable snapshot of the render metrics collected by a {@link CordiformView}
+ * while {@link CordiformView#setRenderStatsEnabled(boolean)} is on.
+ */
+public final class RenderStats {
+    /** Geometry computation in doMath(). */
+    public final static int PHASE_MATH = 0;
+    /** Recording or replaying the static layer, the phases below it only count while recording. */
+    public final static int PHASE_STATIC_LAYER = 1;
+    public final static int PHASE_SHADOW = 2;
+    /** Backgrounds and progress strokes of the arcs and lines. */
+    public final static int PHASE_ARCS = 3;
+    public final static int PHASE_INNER_TEXT = 4;
+    public final static int PHASE_OUTER_TEXT = 5;
+    public final static int PHASE_COUNT = 6;
+
+    private final long drawCount;
+    private final long[] totalNanos;
+    private final long[] maxNanos;
+    private final float invalidationsPerSecond;
+
+    RenderStats(long drawCount, long[] totalNanos, long[] maxNanos, float invalidationsPerSecond) {
+        this.drawCount = drawCount;
+        this.totalNanos = totalNanos.clone();
+        this.maxNanos = maxNanos.clone();
+        this.invalidationsPerSecond = invalidationsPerSecond;
+    }
+
+    public long getDrawCount() {
+        return drawCount;
+    }
+
+    /**
+     * @param phase one of the {@code PHASE_*} constants
+     */
+    public long getTotalNanos(int phase) {
+        return totalNanos[phase];
+    }
+
+    /**
+     * @param phase one of the {@code PHASE_*} constants
+     */
+    public long getMaxNanos(int phase) {
+        return maxNanos[phase];
+    }
+
+    /**
+     * Invalidations counted over the last complete one-second window.
+     */
+    public float getInvalidationsPerSecond() {
+        return invalidationsPerSecond;
+    }
+
+    static String getPhaseName(int phase) {
+        switch (phase){
+            case PHASE_MATH:
+                return "doMath";
+            case PHASE_STATIC_LAYER:
+                return "staticLayer";
+            case PHASE_SHADOW:
+                return "shadow";
+            case PHASE_ARCS:
+                return "arcs";
+            case PHASE_INNER_TEXT:
+                return "innerText";
+            case PHASE_OUTER_TEXT:
+                return "outerText";
+            default:
+                return "unknown";
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("RenderStats{draws=").append(drawCount)
+                .append(", invalidations/s=").append(invalidationsPerSecond);
+        for(int i = 0; i < PHASE_COUNT; i++){
+            builder.append(", ").append(getPhaseName(i))
+                    .append("=").append(totalNanos[i]).append("ns/max ").append(maxNanos[i]).append("ns");
+        }
+        return builder.append('}').toString();
+    }
+}
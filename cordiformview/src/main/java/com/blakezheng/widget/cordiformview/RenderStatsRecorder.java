@@ -0,0 +1,125 @@
+/*
+ * Copyright 2019 Blake Zheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blakezheng.widget.cordiformview;
+
+import android.os.Build;
+import android.os.Trace;
+
+/**
+ * Collects per-phase timings for {@link RenderStats} and emits {@link Trace} sections.
+ * Only exists while stats or tracing is enabled, callers skip it entirely otherwise.
+ */
+class RenderStatsRecorder {
+    private final static long WINDOW_NANOS = 1000000000L;
+    private final static String TRACE_PREFIX = "CordiformView#";
+
+    private final long[] totalNanos = new long[RenderStats.PHASE_COUNT];
+    private final long[] maxNanos = new long[RenderStats.PHASE_COUNT];
+    private final String[] traceNames = new String[RenderStats.PHASE_COUNT];
+
+    private boolean statsEnabled;
+    private boolean traceEnabled;
+
+    private long drawCount;
+    private long windowStart;
+    private int windowInvalidations;
+    private float invalidationsPerSecond;
+
+    RenderStatsRecorder() {
+        for(int i = 0; i < RenderStats.PHASE_COUNT; i++){
+            traceNames[i] = TRACE_PREFIX + RenderStats.getPhaseName(i);
+        }
+        windowStart = System.nanoTime();
+    }
+
+    boolean isStatsEnabled() {
+        return statsEnabled;
+    }
+
+    void setStatsEnabled(boolean statsEnabled) {
+        this.statsEnabled = statsEnabled;
+    }
+
+    boolean isTraceEnabled() {
+        return traceEnabled;
+    }
+
+    void setTraceEnabled(boolean traceEnabled) {
+        this.traceEnabled = traceEnabled && Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2;
+    }
+
+    boolean isActive() {
+        return statsEnabled || traceEnabled;
+    }
+
+    long beginPhase(int phase) {
+        if(traceEnabled){
+            Trace.beginSection(traceNames[phase]);
+        }
+        return statsEnabled ? System.nanoTime() : 0;
+    }
+
+    void endPhase(int phase, long start) {
+        if(statsEnabled){
+            long elapsed = System.nanoTime() - start;
+            totalNanos[phase] += elapsed;
+            if(elapsed > maxNanos[phase]){
+                maxNanos[phase] = elapsed;
+            }
+        }
+        if(traceEnabled){
+            Trace.endSection();
+        }
+    }
+
+    void onInvalidate() {
+        windowInvalidations++;
+    }
+
+    /**
+     * @return true once a one-second window has been closed by this draw
+     */
+    boolean onDrawFinished() {
+        if(!statsEnabled){
+            return false;
+        }
+        drawCount++;
+        long now = System.nanoTime();
+        long elapsed = now - windowStart;
+        if(elapsed < WINDOW_NANOS){
+            return false;
+        }
+        invalidationsPerSecond = windowInvalidations * (float) WINDOW_NANOS / elapsed;
+        windowInvalidations = 0;
+        windowStart = now;
+        return true;
+    }
+
+    void reset() {
+        for(int i = 0; i < RenderStats.PHASE_COUNT; i++){
+            totalNanos[i] = 0;
+            maxNanos[i] = 0;
+        }
+        drawCount = 0;
+        windowInvalidations = 0;
+        invalidationsPerSecond = 0;
+        windowStart = System.nanoTime();
+    }
+
+    RenderStats snapshot() {
+        return new RenderStats(drawCount, totalNanos, maxNanos, invalidationsPerSecond);
+    }
+}
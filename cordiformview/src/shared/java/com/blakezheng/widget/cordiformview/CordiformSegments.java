@@ -0,0 +1,140 @@
+/*
+ * Copyright 2019 Blake Zheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blakezheng.widget.cordiformview;
+
+import java.util.Arrays;
+
+/**
+ * How the outline of the heart is split into segments that each show a progress. Bounds are fractions
+ * of the outline, which runs clockwise from the left end of the left lobe over both lobes and back along
+ * the bottom. Plain java like {@link HeartMetrics}, instances are immutable.
+ * <p>
+ * {@link #threeParts()}, the default, is the left lobe, the right lobe and the bottom.
+ */
+public final class CordiformSegments {
+    public final static int MAX_COUNT = 12;
+
+    //where the lobes end on the outline, the outline is mapped onto the parts piecewise so these are exact
+    final static float LEFT_PART_END = HeartMetrics.ARC_PART_RATIO / HeartMetrics.OUTLINE_RATIO;
+    final static float RIGHT_PART_END = 2 * HeartMetrics.ARC_PART_RATIO / HeartMetrics.OUTLINE_RATIO;
+
+    final static int PART_LEFT = 1;
+    final static int PART_RIGHT = 1 << 1;
+    final static int PART_BOTTOM = 1 << 2;
+
+    private final static CordiformSegments THREE_PARTS = new CordiformSegments(new float[]{0, LEFT_PART_END, RIGHT_PART_END, 1});
+
+    final int count;
+    //count + 1 ascending fractions of the outline
+    final float[] bounds;
+    //parts of the heart each segment runs along, PART_*
+    final int[] parts;
+
+    private CordiformSegments(float[] bounds) {
+        count = bounds.length - 1;
+        this.bounds = bounds;
+        parts = new int[count];
+        for(int i = 0; i < count; i++){
+            parts[i] = partsOf(bounds[i], bounds[i + 1]);
+        }
+    }
+
+    /**
+     * The left lobe, the right lobe and the bottom, in this order.
+     */
+    public static CordiformSegments threeParts() {
+        return THREE_PARTS;
+    }
+
+    /**
+     * {@code count} segments of the same length.
+     */
+    public static CordiformSegments even(int count) {
+        checkCount(count);
+        float[] bounds = new float[count + 1];
+        for(int i = 1; i < count; i++){
+            bounds[i] = (float) i / count;
+        }
+        bounds[count] = 1;
+        return new CordiformSegments(bounds);
+    }
+
+    /**
+     * Segments between the given fractions of the outline, one more bound than segments.
+     *
+     * @param bounds ascending from 0 to 1
+     */
+    public static CordiformSegments of(float... bounds) {
+        checkCount(bounds.length - 1);
+        if(bounds[0] != 0 || bounds[bounds.length - 1] != 1){
+            throw new IllegalArgumentException("bounds must start at 0 and end at 1: " + Arrays.toString(bounds));
+        }
+        for(int i = 1; i < bounds.length; i++){
+            if(!(bounds[i] > bounds[i - 1])){
+                throw new IllegalArgumentException("bounds must ascend: " + Arrays.toString(bounds));
+            }
+        }
+        return new CordiformSegments(bounds.clone());
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public float getStart(int segment) {
+        return bounds[segment];
+    }
+
+    public float getEnd(int segment) {
+        return bounds[segment + 1];
+    }
+
+    private static void checkCount(int count) {
+        if(count < 1 || count > MAX_COUNT){
+            throw new IllegalArgumentException("segment count must be in [1, " + MAX_COUNT + "]: " + count);
+        }
+    }
+
+    private static int partsOf(float start, float end) {
+        int parts = 0;
+        if(start < LEFT_PART_END){
+            parts |= PART_LEFT;
+        }
+        if(start < RIGHT_PART_END && end > LEFT_PART_END){
+            parts |= PART_RIGHT;
+        }
+        if(end > RIGHT_PART_END){
+            parts |= PART_BOTTOM;
+        }
+        return parts;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if(this == o){
+            return true;
+        }
+        if(!(o instanceof CordiformSegments)){
+            return false;
+        }
+        return Arrays.equals(bounds, ((CordiformSegments) o).bounds);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(bounds);
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2019 Blake Zheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blakezheng.widget.cordiformview;
+
+/**
+ * Color math on packed ARGB ints, plain java like {@link HeartMetrics}.
+ */
+final class HeartColors {
+
+    private HeartColors() {
+    }
+
+    /**
+     * @return the background color of a part, 30 percent of each channel, alpha is kept
+     */
+    static int parseToDarkColor(int color){
+        int r = (color >> 16) & 0xff;
+        int g = (color >> 8) & 0xff;
+        int b = color & 0xff;
+        return (color & 0xff000000) | ((int)(r * 0.3) << 16) | ((int)(g * 0.3) << 8) | (int)(b * 0.3);
+    }
+}
@@ -0,0 +1,255 @@
+/*
+ * Copyright 2019 Blake Zheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blakezheng.widget.cordiformview;
+
+/**
+ * Numbers of the heart shape for one {@link Key}, plain java so that it can be verified
+ * without a device. Instances are immutable.
+ */
+final class HeartMetrics {
+    final static float SQRT_TWO = (float) Math.sqrt(2);
+    final static float DRAWABLE_RATIO = (float) ((4 + 2 * SQRT_TWO)/ (2 + 3 * SQRT_TWO));
+    final static float TEXT_HEIGHT_SCALE = 1.171875f;
+    final static float FULL_PROGRESS = 100f;
+    //lengths of a lobe, of the bottom and of the whole outline in multiples of sideLength
+    final static float ARC_PART_RATIO = (float) (Math.PI / 2);
+    final static float BOTTOM_PART_RATIO = (float) (1.5 + Math.PI / 8);
+    final static float OUTLINE_RATIO = 2 * ARC_PART_RATIO + BOTTOM_PART_RATIO;
+
+    final Key key;
+
+    final int drawableWidth;
+    final int drawableHeight;
+    final int xOffset;
+    final int yOffset;
+
+    final int sideLength;
+    //stroke width clamped to the size of the heart
+    final int strokeWidth;
+
+    final int leftLineStartX;
+    final int leftLineStartY;
+    final int leftLineEndX;
+    final int leftLineEndY;
+
+    final int rightLineStartX;
+    final int rightLineStartY;
+    final int rightLineEndX;
+    final int rightLineEndY;
+
+    final int bottomArcRadius;
+    final int bottomArcCx;
+    final int bottomArcCy;
+
+    //lengths along the middle of the stroke, of each lobe and of the bottom
+    final float arcPartLength;
+    final float bottomPartLength;
+
+    HeartMetrics(Key key) {
+        this.key = key;
+
+        int widthWithoutPadding = Math.max(key.width - actualPaddingHorizontal(key), 0);
+        int heightWithoutPadding = Math.max(key.height - actualPaddingVertical(key), 0);
+        int x = key.strokeWidth / 2 + key.paddingStart + (int)Math.max(key.shadowRadius - key.shadowDx, outerTextMargin(key));
+        int y = key.strokeWidth / 2 + key.paddingTop + (int)Math.max(key.shadowRadius - key.shadowDy, outerTextMargin(key));
+        int width;
+        int height;
+        float ratio = (float) widthWithoutPadding / heightWithoutPadding;
+        if(ratio > DRAWABLE_RATIO){
+            height = heightWithoutPadding;
+            width = (int) (height * DRAWABLE_RATIO);
+            x += (widthWithoutPadding - width) / 2;
+        }else{
+            width = widthWithoutPadding;
+            height = (int) (width / DRAWABLE_RATIO);
+            y += (heightWithoutPadding - height) / 2;
+        }
+        drawableWidth = width;
+        drawableHeight = height;
+        xOffset = x;
+        yOffset = y;
+
+        if(isEmpty()){
+            sideLength = -1;
+            strokeWidth = key.strokeWidth;
+            leftLineStartX = leftLineStartY = leftLineEndX = leftLineEndY = 0;
+            rightLineStartX = rightLineStartY = rightLineEndX = rightLineEndY = 0;
+            bottomArcRadius = bottomArcCx = bottomArcCy = 0;
+            arcPartLength = bottomPartLength = 0;
+            return;
+        }
+
+        sideLength = (int) (2 * width / (2 + SQRT_TWO));
+        if(key.strokeWidth > sideLength / 3){
+            strokeWidth = sideLength / 3;
+        }else if(key.strokeWidth <= 0){
+            strokeWidth = sideLength / 6;
+        }else{
+            strokeWidth = key.strokeWidth;
+        }
+
+        bottomArcRadius = (int) (0.25 * sideLength);
+        int offset = (int) (bottomArcRadius/SQRT_TWO);
+
+        leftLineEndX = (int) (( 2 - SQRT_TWO) * sideLength / 4) + x;
+        leftLineEndY = (int) (( 2 + SQRT_TWO) * sideLength / 4) + y;
+        rightLineStartX = width - leftLineEndX + 2*x;
+        rightLineStartY = leftLineEndY;
+        rightLineEndX = x + width / 2 + offset;
+        rightLineEndY = y + height - offset;
+        leftLineStartX = x + width / 2 - offset;
+        leftLineStartY = y + height - offset;
+
+        bottomArcCx = x + width / 2;
+        bottomArcCy = y + (int) (height - SQRT_TWO * bottomArcRadius);
+
+        arcPartLength = (float) (Math.PI * sideLength / 2);
+        bottomPartLength = (float) (Math.hypot(rightLineEndX - rightLineStartX, rightLineEndY - rightLineStartY)
+                + Math.PI * bottomArcRadius / 2
+                + Math.hypot(leftLineEndX - leftLineStartX, leftLineEndY - leftLineStartY));
+    }
+
+    boolean isEmpty(){
+        return drawableWidth <= 0 || drawableHeight <= 0;
+    }
+
+    /**
+     * Arc-length parametrization of the outline, piecewise per part so that the parts start and end
+     * exactly where {@link CordiformSegments} expects them.
+     *
+     * @return distance along the middle of the stroke from the start of the left lobe to a fraction of the outline
+     */
+    float outlineDistance(float fraction){
+        if(fraction <= CordiformSegments.LEFT_PART_END){
+            return arcPartLength * fraction / CordiformSegments.LEFT_PART_END;
+        }
+        if(fraction <= CordiformSegments.RIGHT_PART_END){
+            return arcPartLength * (1 + (fraction - CordiformSegments.LEFT_PART_END)
+                    / (CordiformSegments.RIGHT_PART_END - CordiformSegments.LEFT_PART_END));
+        }
+        return 2 * arcPartLength + bottomPartLength * (fraction - CordiformSegments.RIGHT_PART_END)
+                / (1 - CordiformSegments.RIGHT_PART_END);
+    }
+
+    static float outerTextMargin(Key key){
+        return key.outerTextSize * TEXT_HEIGHT_SCALE + key.outerTextOffset;
+    }
+
+    static int actualPaddingHorizontal(Key key){
+        return key.paddingStart + key.paddingEnd + key.strokeWidth + 2 * (int)Math.max((float) key.shadowRadius, outerTextMargin(key));
+    }
+
+    static int actualPaddingVertical(Key key){
+        return key.paddingTop + key.paddingBottom + key.strokeWidth + 2 * (int)Math.max((float) key.shadowRadius, outerTextMargin(key));
+    }
+
+    /**
+     * @return width of a heart {@code drawableWidth} wide with the paddings of the key, its size is ignored
+     */
+    static int widthFor(Key key, int drawableWidth){
+        return drawableWidth + actualPaddingHorizontal(key);
+    }
+
+    /**
+     * @return height of a heart {@code drawableWidth} wide with the paddings of the key, its size is ignored
+     */
+    static int heightFor(Key key, int drawableWidth){
+        return (int) Math.ceil(drawableWidth / DRAWABLE_RATIO) + actualPaddingVertical(key);
+    }
+
+    /**
+     * Everything the shape depends on. Views keep one as scratch for lookups,
+     * so a key must be {@link #copy() copied} before it is kept anywhere.
+     */
+    static final class Key {
+        int width;
+        int height;
+        int paddingStart;
+        int paddingTop;
+        int paddingEnd;
+        int paddingBottom;
+        int strokeWidth;
+        int shadowRadius;
+        int shadowDx;
+        int shadowDy;
+        float outerTextSize;
+        int outerTextOffset;
+
+        Key set(int width, int height, int paddingStart, int paddingTop, int paddingEnd, int paddingBottom,
+                int strokeWidth, int shadowRadius, int shadowDx, int shadowDy,
+                float outerTextSize, int outerTextOffset){
+            this.width = width;
+            this.height = height;
+            this.paddingStart = paddingStart;
+            this.paddingTop = paddingTop;
+            this.paddingEnd = paddingEnd;
+            this.paddingBottom = paddingBottom;
+            this.strokeWidth = strokeWidth;
+            this.shadowRadius = shadowRadius;
+            this.shadowDx = shadowDx;
+            this.shadowDy = shadowDy;
+            this.outerTextSize = outerTextSize;
+            this.outerTextOffset = outerTextOffset;
+            return this;
+        }
+
+        Key copy(){
+            return new Key().set(width, height, paddingStart, paddingTop, paddingEnd, paddingBottom,
+                    strokeWidth, shadowRadius, shadowDx, shadowDy,
+                    outerTextSize, outerTextOffset);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if(this == o){
+                return true;
+            }
+            if(!(o instanceof Key)){
+                return false;
+            }
+            Key key = (Key) o;
+            return width == key.width
+                    && height == key.height
+                    && paddingStart == key.paddingStart
+                    && paddingTop == key.paddingTop
+                    && paddingEnd == key.paddingEnd
+                    && paddingBottom == key.paddingBottom
+                    && strokeWidth == key.strokeWidth
+                    && shadowRadius == key.shadowRadius
+                    && shadowDx == key.shadowDx
+                    && shadowDy == key.shadowDy
+                    && Float.compare(outerTextSize, key.outerTextSize) == 0
+                    && outerTextOffset == key.outerTextOffset;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = width;
+            result = 31 * result + height;
+            result = 31 * result + paddingStart;
+            result = 31 * result + paddingTop;
+            result = 31 * result + paddingEnd;
+            result = 31 * result + paddingBottom;
+            result = 31 * result + strokeWidth;
+            result = 31 * result + shadowRadius;
+            result = 31 * result + shadowDx;
+            result = 31 * result + shadowDy;
+            result = 31 * result + Float.floatToIntBits(outerTextSize);
+            result = 31 * result + outerTextOffset;
+            return result;
+        }
+    }
+}
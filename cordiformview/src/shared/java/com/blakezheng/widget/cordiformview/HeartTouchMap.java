@@ -0,0 +1,140 @@
+/*
+ * Copyright 2019 Blake Zheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blakezheng.widget.cordiformview;
+
+import java.util.Arrays;
+
+import static com.blakezheng.widget.cordiformview.CordiformSegments.LEFT_PART_END;
+import static com.blakezheng.widget.cordiformview.CordiformSegments.RIGHT_PART_END;
+
+/**
+ * Lookup table from touch coordinates to the nearest fraction of the outline, see {@link CordiformSegments}.
+ * The view is covered by a grid whose cells keep the fraction nearest to their center, so a touch is
+ * mapped with one array read instead of searching the arcs and lines. Plain java like {@link HeartMetrics},
+ * instances are immutable.
+ */
+final class HeartTouchMap {
+    final static float NONE = -1;
+
+    //cells are a sixth of the stroke, but neither tiny nor more than MAX_CELLS along a side
+    private final static int CELLS_PER_STROKE = 6;
+    private final static int MIN_CELL_SIZE = 2;
+    private final static int MAX_CELLS = 128;
+
+    private final int cellSize;
+    private final int columns;
+    private final int rows;
+    //fraction of the outline per cell, NONE for cells too far off the stroke
+    private final float[] fractions;
+
+    /**
+     * Touches up to a stroke width away from the middle of the stroke hit it.
+     */
+    HeartTouchMap(HeartMetrics m) {
+        int width = Math.max(m.key.width, 0);
+        int height = Math.max(m.key.height, 0);
+        cellSize = Math.max(Math.max(MIN_CELL_SIZE, m.strokeWidth / CELLS_PER_STROKE),
+                (Math.max(width, height) + MAX_CELLS - 1) / MAX_CELLS);
+        columns = (width + cellSize - 1) / cellSize;
+        rows = (height + cellSize - 1) / cellSize;
+        fractions = new float[columns * rows];
+        Arrays.fill(fractions, NONE);
+        if(m.isEmpty()){
+            return;
+        }
+
+        float[] distances = new float[fractions.length];
+        Arrays.fill(distances, Float.MAX_VALUE);
+        float reach = m.strokeWidth;
+        //samples half a cell apart, every cell near the stroke is closest to one of them
+        int samples = (int) Math.ceil((2 * m.arcPartLength + m.bottomPartLength) * 2 / cellSize);
+        float[] point = new float[2];
+        for(int i = 0; i <= samples; i++){
+            float fraction = (float) i / samples;
+            outlinePoint(m, fraction, point);
+            int minColumn = Math.max(0, (int) ((point[0] - reach) / cellSize));
+            int maxColumn = Math.min(columns - 1, (int) ((point[0] + reach) / cellSize));
+            int minRow = Math.max(0, (int) ((point[1] - reach) / cellSize));
+            int maxRow = Math.min(rows - 1, (int) ((point[1] + reach) / cellSize));
+            for(int row = minRow; row <= maxRow; row++){
+                float dy = (row + 0.5f) * cellSize - point[1];
+                for(int column = minColumn; column <= maxColumn; column++){
+                    float dx = (column + 0.5f) * cellSize - point[0];
+                    float distance = dx * dx + dy * dy;
+                    int cell = row * columns + column;
+                    if(distance <= reach * reach && distance < distances[cell]){
+                        distances[cell] = distance;
+                        fractions[cell] = fraction;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return fraction of the outline nearest to the point, {@link #NONE} if the point is off the stroke
+     */
+    float fractionAt(float x, float y) {
+        if(!(x >= 0 && y >= 0)){
+            return NONE;
+        }
+        int column = (int) x / cellSize;
+        int row = (int) y / cellSize;
+        if(column >= columns || row >= rows){
+            return NONE;
+        }
+        return fractions[row * columns + column];
+    }
+
+    /**
+     * Point in the middle of the stroke at a fraction of the outline, with the same parametrization
+     * the segments are drawn with: piecewise per part, by arc length within a part.
+     */
+    static void outlinePoint(HeartMetrics m, float fraction, float[] out) {
+        float radius = m.sideLength / 2f;
+        if(fraction <= LEFT_PART_END){
+            arcPoint(m.xOffset + radius, m.yOffset + radius, radius, 135 + 180 * fraction / LEFT_PART_END, out);
+        }else if(fraction <= RIGHT_PART_END){
+            arcPoint(m.drawableWidth - radius + m.xOffset, m.yOffset + radius, radius,
+                    -135 + 180 * (fraction - LEFT_PART_END) / (RIGHT_PART_END - LEFT_PART_END), out);
+        }else{
+            //right line, bottom arc and left line, like CordiformGeometry#bottomPath
+            float distance = m.outlineDistance(fraction) - 2 * m.arcPartLength;
+            float rightLine = (float) Math.hypot(m.rightLineEndX - m.rightLineStartX, m.rightLineEndY - m.rightLineStartY);
+            float arc = (float) (Math.PI * m.bottomArcRadius / 2);
+            if(distance <= rightLine){
+                linePoint(m.rightLineStartX, m.rightLineStartY, m.rightLineEndX, m.rightLineEndY, distance / rightLine, out);
+            }else if(distance <= rightLine + arc){
+                arcPoint(m.bottomArcCx, m.bottomArcCy, m.bottomArcRadius, 45 + 90 * (distance - rightLine) / arc, out);
+            }else{
+                float leftLine = m.bottomPartLength - rightLine - arc;
+                linePoint(m.leftLineStartX, m.leftLineStartY, m.leftLineEndX, m.leftLineEndY,
+                        Math.min((distance - rightLine - arc) / leftLine, 1), out);
+            }
+        }
+    }
+
+    private static void arcPoint(float cx, float cy, float radius, float degrees, float[] out) {
+        double angle = Math.toRadians(degrees);
+        out[0] = (float) (cx + radius * Math.cos(angle));
+        out[1] = (float) (cy + radius * Math.sin(angle));
+    }
+
+    private static void linePoint(float startX, float startY, float stopX, float stopY, float ratio, float[] out) {
+        out[0] = startX + (stopX - startX) * ratio;
+        out[1] = startY + (stopY - startY) * ratio;
+    }
+}
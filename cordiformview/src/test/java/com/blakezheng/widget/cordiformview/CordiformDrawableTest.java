@@ -0,0 +1,142 @@
+/*
+ * Copyright 2019 Blake Zheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blakezheng.widget.cordiformview;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.drawable.Drawable;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class CordiformDrawableTest {
+
+    @Test
+    public void levelSetsAllProgresses() {
+        CordiformDrawable drawable = new CordiformDrawable();
+        drawable.setLevel(2500);
+
+        assertEquals(25f, drawable.getLeftProgress(), 0);
+        assertEquals(25f, drawable.getRightProgress(), 0);
+        assertEquals(25f, drawable.getBottomProgress(), 0);
+    }
+
+    @Test
+    public void levelRedrawsOnlyItsDrawable() {
+        CordiformDrawable drawable = new CordiformDrawable();
+        CordiformDrawable copy = (CordiformDrawable) drawable.getConstantState().newDrawable();
+        final int[] invalidates = new int[1];
+        copy.setCallback(new Drawable.Callback() {
+            @Override
+            public void invalidateDrawable(Drawable who) {
+                invalidates[0]++;
+            }
+
+            @Override
+            public void scheduleDrawable(Drawable who, Runnable what, long when) {
+            }
+
+            @Override
+            public void unscheduleDrawable(Drawable who, Runnable what) {
+            }
+        });
+
+        copy.setLevel(5000);
+
+        assertEquals(1, invalidates[0]);
+        assertEquals(50f, copy.getLeftProgress(), 0);
+        assertEquals(0f, drawable.getLeftProgress(), 0);
+        assertEquals(0f, ((CordiformDrawable) drawable.getConstantState().newDrawable()).getLeftProgress(), 0);
+    }
+
+    @Test
+    public void progressIsClamped() {
+        CordiformDrawable drawable = new CordiformDrawable(new CordiformState().setProgress(-5, 50, 150));
+
+        assertEquals(0f, drawable.getLeftProgress(), 0);
+        assertEquals(50f, drawable.getRightProgress(), 0);
+        assertEquals(100f, drawable.getBottomProgress(), 0);
+    }
+
+    @Test
+    public void constantStateSharesPropertiesUntilMutated() {
+        CordiformState state = new CordiformState().setProgress(10, 20, 30).setStrokeWidth(12);
+        CordiformDrawable drawable = new CordiformDrawable(state);
+        CordiformDrawable copy = (CordiformDrawable) drawable.getConstantState().newDrawable();
+
+        assertEquals(state, copy.getCordiformState(new CordiformState()));
+
+        copy.mutate();
+        copy.setProgress(90, 90, 90);
+        assertNotSame(drawable.getConstantState(), copy.getConstantState());
+        assertEquals(10f, drawable.getLeftProgress(), 0);
+    }
+
+    @Test
+    public void progressStaysWithItsDrawable() {
+        CordiformDrawable drawable = new CordiformDrawable(new CordiformState().setProgress(10, 20, 30));
+        CordiformDrawable row = (CordiformDrawable) drawable.getConstantState().newDrawable();
+
+        row.setProgress(90, 90, 90);
+
+        assertEquals(90f, row.getLeftProgress(), 0);
+        assertEquals(10f, drawable.getLeftProgress(), 0);
+        assertEquals(10f, ((CordiformDrawable) drawable.getConstantState().newDrawable()).getLeftProgress(), 0);
+        assertEquals(10f, drawable.getCordiformState(new CordiformState()).getLeftProgress(), 0);
+    }
+
+    @Test
+    public void intrinsicSizeFitsTheHeart() {
+        CordiformDrawable drawable = new CordiformDrawable(new CordiformState().setStrokeWidth(12));
+        int width = drawable.getIntrinsicWidth();
+        int height = drawable.getIntrinsicHeight();
+        assertTrue(width > 0);
+
+        //laid out at its intrinsic size, the heart is as wide as without bounds
+        HeartMetrics m = new HeartMetrics(new HeartMetrics.Key().set(width, height, 0, 0, 0, 0, 12, 0, 0, 0, 0, 0));
+        assertEquals(width - 12, m.drawableWidth);
+        assertEquals(HeartMetrics.DRAWABLE_RATIO, (float) m.drawableWidth / m.drawableHeight, 0.05f);
+    }
+
+    @Test
+    public void intrinsicSizeMakesRoomForOuterTexts() {
+        CordiformDrawable plain = new CordiformDrawable();
+        CordiformDrawable texts = new CordiformDrawable(new CordiformState().setOuterTexts("68bpm", null, null));
+
+        assertTrue(texts.getIntrinsicWidth() > plain.getIntrinsicWidth());
+        assertTrue(texts.getIntrinsicHeight() > plain.getIntrinsicHeight());
+    }
+
+    @Test
+    public void drawsOnlyInsideBounds() {
+        CordiformDrawable drawable = new CordiformDrawable(new CordiformState()
+                .setProgress(50, 50, 50)
+                .setOuterTexts("68bpm", "5600", "7hrs"));
+        drawable.setBounds(100, 100, 400, 400);
+
+        Bitmap bitmap = Bitmap.createBitmap(500, 500, Bitmap.Config.ARGB_8888);
+        drawable.draw(new Canvas(bitmap));
+
+        assertEquals(0, bitmap.getPixel(50, 50));
+        assertEquals(0, bitmap.getPixel(450, 450));
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2019 Blake Zheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blakezheng.widget.cordiformview;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Path;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.shadow.api.Shadow;
+import org.robolectric.shadows.ShadowPaint;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+@RunWith(RobolectricTestRunner.class)
+public class CordiformRendererTest {
+    private static final int SIZE = 200;
+
+    @Test
+    public void renderBatchKeepsOrderAndSize() throws InterruptedException {
+        List<CordiformState> states = new ArrayList<>();
+        for(int i = 0; i < 37; i++){
+            states.add(new CordiformState().setProgress(i, 100 - i, i * 2).setOuterTexts(String.valueOf(i), null, null));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Bitmap> bitmaps = new CordiformRenderer(SIZE, SIZE).renderBatch(states, executor);
+
+            assertEquals(states.size(), bitmaps.size());
+            for(Bitmap bitmap : bitmaps){
+                assertNotNull(bitmap);
+                assertEquals(SIZE, bitmap.getWidth());
+                assertEquals(SIZE, bitmap.getHeight());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test(expected = OutOfMemoryError.class, timeout = 10000)
+    public void renderBatchFailsWithTheErrorOfATask() throws InterruptedException {
+        List<CordiformState> states = new AbstractList<CordiformState>() {
+            @Override
+            public CordiformState get(int index) {
+                if(index == 0){
+                    throw new OutOfMemoryError("bitmap " + index);
+                }
+                return new CordiformState();
+            }
+
+            @Override
+            public int size() {
+                return 8;
+            }
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            new CordiformRenderer(SIZE, SIZE).renderBatch(states, executor);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void shadowIsTheViewsBakedShadow() {
+        final int[] bitmaps = new int[1];
+        final int[] shadowLayers = new int[1];
+        Canvas canvas = new Canvas() {
+            @Override
+            public void drawBitmap(Bitmap bitmap, float left, float top, Paint paint) {
+                bitmaps[0]++;
+            }
+
+            @Override
+            public void drawPath(Path path, Paint paint) {
+                if(Shadow.<ShadowPaint>extract(paint).getShadowRadius() > 0){
+                    shadowLayers[0]++;
+                }
+            }
+        };
+
+        new CordiformRenderer(SIZE, SIZE).render(canvas, new CordiformState().setShadow(6, 0, 3, 0x40000000));
+
+        assertEquals(1, bitmaps[0]);
+        assertEquals(0, shadowLayers[0]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void emptySizeIsRejected() {
+        new CordiformRenderer(0, SIZE);
+    }
+}
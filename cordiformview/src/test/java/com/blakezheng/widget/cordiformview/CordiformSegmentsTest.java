@@ -0,0 +1,69 @@
+/*
+ * Copyright 2019 Blake Zheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blakezheng.widget.cordiformview;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Runs on the plain JVM like {@link HeartMetricsTest}.
+ */
+public class CordiformSegmentsTest {
+
+    @Test
+    public void threePartsAreTheParts() {
+        CordiformSegments parts = CordiformSegments.threeParts();
+
+        assertEquals(3, parts.getCount());
+        assertEquals(CordiformSegments.PART_LEFT, parts.parts[0]);
+        assertEquals(CordiformSegments.PART_RIGHT, parts.parts[1]);
+        assertEquals(CordiformSegments.PART_BOTTOM, parts.parts[2]);
+        assertEquals(CordiformSegments.LEFT_PART_END, parts.getEnd(0), 0f);
+        assertEquals(CordiformSegments.RIGHT_PART_END, parts.getEnd(1), 0f);
+    }
+
+    @Test
+    public void evenSegmentsCoverTheOutline() {
+        CordiformSegments twelve = CordiformSegments.even(12);
+
+        assertEquals(12, twelve.getCount());
+        assertEquals(0f, twelve.getStart(0), 0f);
+        assertEquals(1f, twelve.getEnd(11), 0f);
+        for(int i = 0; i < 12; i++){
+            assertEquals(1f / 12, twelve.getEnd(i) - twelve.getStart(i), 0.0001f);
+        }
+    }
+
+    @Test
+    public void segmentsAcrossPartsTouchBoth() {
+        CordiformSegments segments = CordiformSegments.of(0, 0.2f, 0.5f, 1);
+
+        assertEquals(CordiformSegments.PART_LEFT, segments.parts[0]);
+        assertEquals(CordiformSegments.PART_LEFT | CordiformSegments.PART_RIGHT, segments.parts[1]);
+        assertEquals(CordiformSegments.PART_RIGHT | CordiformSegments.PART_BOTTOM, segments.parts[2]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void boundsMustAscend() {
+        CordiformSegments.of(0, 0.5f, 0.5f, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tooManySegmentsAreRejected() {
+        CordiformSegments.even(CordiformSegments.MAX_COUNT + 1);
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2019 Blake Zheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blakezheng.widget.cordiformview;
+
+import android.content.Context;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Views of one style must share its resolution and still look like views resolving their own.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class CordiformStyleTest {
+
+    @Test
+    public void stylesAreSharedPerTheme() {
+        Context context = RuntimeEnvironment.application;
+
+        assertSame(CordiformStyle.obtainDefault(context), CordiformStyle.obtainDefault(context));
+        assertSame(CordiformStyle.obtain(context, null, 0), CordiformStyle.obtain(context, null, 0));
+        assertNotSame(CordiformStyle.obtainDefault(context), CordiformStyle.obtain(context, null, 0));
+    }
+
+    @Test
+    public void configurationChangeResolvesAgain() {
+        Context context = RuntimeEnvironment.application;
+        CordiformStyle portrait = CordiformStyle.obtainDefault(context);
+        RuntimeEnvironment.setQualifiers("+land");
+
+        assertNotSame(portrait, CordiformStyle.obtainDefault(context));
+    }
+
+    @Test
+    public void clearedThemeResolvesAgain() {
+        Context context = RuntimeEnvironment.application;
+        CordiformStyle style = CordiformStyle.obtain(context, null, 0);
+        context.getTheme().applyStyle(android.R.style.Theme_Black, true);
+        CordiformStyle.clearCache(context.getTheme());
+
+        assertNotSame(style, CordiformStyle.obtain(context, null, 0));
+    }
+
+    @Test
+    public void sharedColorsMatchOwnColors() {
+        Context context = RuntimeEnvironment.application;
+        int left = ColorUtils.getColor(context, R.color.default_left_arc_color);
+        int right = ColorUtils.getColor(context, R.color.default_right_arc_color);
+        int bottom = ColorUtils.getColor(context, R.color.default_bottom_line_color);
+        CordiformStyle style = CordiformStyle.obtainDefault(context);
+        CordiformPainter own = new CordiformPainter(left, right, bottom, style.shadowColor, style.innerTextColor);
+        CordiformPainter shared = new CordiformPainter(style);
+
+        for(int i = 0; i < CordiformSegments.MAX_COUNT; i++){
+            assertEquals(own.getSegmentColor(i), shared.getSegmentColor(i));
+            assertEquals(HeartColors.parseToDarkColor(own.getSegmentColor(i)), style.segmentBgColors[i]);
+        }
+        assertEquals(left, new CordiformView(context).getLeftArcColor());
+    }
+
+    @Test
+    public void viewsOfOneStyleKeepTheirOwnState() {
+        Context context = RuntimeEnvironment.application;
+        CordiformStyle style = CordiformStyle.obtainDefault(context);
+        CordiformView first = new CordiformView(context, style);
+        CordiformView second = new CordiformView(context, style);
+        first.setLeftArcColor(0xff123456);
+        first.setProgress(10, 20, 30);
+
+        assertEquals(0xff123456, first.getLeftArcColor());
+        assertEquals(style.leftArcColor, second.getLeftArcColor());
+        assertEquals(0, second.getLeftProgress(), 0);
+        assertEquals(style.leftArcColor, style.segmentColors[0]);
+    }
+}
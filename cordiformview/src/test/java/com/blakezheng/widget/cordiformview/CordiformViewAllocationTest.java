@@ -0,0 +1,153 @@
+package com.blakezheng.widget.cordiformview;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.Picture;
+import android.graphics.RectF;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import com.sun.management.ThreadMXBean;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Fails when a steady-state frame of {@link CordiformView} allocates: a progress setter with the invalidation
+ * it triggers, or a frame of {@link CordiformView#animateProgress}, followed by the draw. Every frame after
+ * warming up must allocate nothing.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class CordiformViewAllocationTest {
+    private static final int SIZE = 600;
+    private static final int FRAMES = 2000;
+    //the test runtime allocates a few times while it warms up, e.g. when it links and compiles the calls
+    //into the instrumented android classes, so warming up lasts until that many frames in a row allocated nothing
+    private static final int SETTLED_FRAMES = 100000;
+    //more than the runtime's own, the view allocates and warming up ends early
+    private static final int MAX_WARM_UP_ALLOCATIONS = 50;
+    private static final long FRAME_NANOS = 16666667;
+    private static final int ANIMATION_FRAMES = 1000;
+    //looked up once, the lookup allocates
+    private static final ThreadMXBean THREADS = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final Canvas canvas = new NoOpCanvas();
+
+    @Test
+    public void setterFramesDoNotAllocate() {
+        final CordiformView view = createView();
+        assertFramesDoNotAllocate(new Frame() {
+            @Override
+            public void run(int frame) {
+                view.setProgress(frame % 101, (frame * 3) % 101, (frame * 7) % 101);
+                view.onDraw(canvas);
+            }
+        });
+    }
+
+    @Test
+    public void animationFramesDoNotAllocate() {
+        final CordiformView view = createView();
+        final ProgressAnimator animator = new ProgressAnimator(view);
+        animator.start(100, 50, 75, ANIMATION_FRAMES * FRAME_NANOS / 1000000, null);
+        //the frame callback is run directly, posting the next one is up to the framework
+        assertFramesDoNotAllocate(new Frame() {
+            @Override
+            public void run(int frame) {
+                //the clock wraps before the animation ends, so it runs through all frames
+                animator.step(frame % ANIMATION_FRAMES * FRAME_NANOS);
+                view.onDraw(canvas);
+            }
+        });
+        animator.cancel();
+    }
+
+    private static void assertFramesDoNotAllocate(Frame frame) {
+        int index = 0;
+        int settled = 0;
+        int allocations = 0;
+        while(settled < SETTLED_FRAMES && allocations <= MAX_WARM_UP_ALLOCATIONS){
+            if(allocatedBytes(frame, index++) == 0){
+                settled++;
+            }else{
+                settled = 0;
+                allocations++;
+            }
+        }
+
+        for(int i = 0; i < FRAMES; i++, index++){
+            long allocated = allocatedBytes(frame, index);
+            assertEquals("frame " + index + " allocated " + allocated + " bytes", 0, allocated);
+        }
+    }
+
+    private static long allocatedBytes(Frame frame, int index) {
+        long before = allocatedBytes();
+        frame.run(index);
+        return allocatedBytes() - before;
+    }
+
+    /**
+     * Everything a frame does, from what asks for it to the draw.
+     */
+    private interface Frame {
+        void run(int frame);
+    }
+
+    private static CordiformView createView() {
+        TestViews.CountingView view = new TestViews.CountingView();
+        view.setDropInvalidates(true);
+        view.setShadowRadius(10);
+        view.setShadowDy(5);
+        view.setLeftInnerText("HeartRate");
+        view.setRightInnerText("Steps");
+        view.setBottomInnerText("Sleep");
+        view.setLeftOuterText("68bpm");
+        view.setRightOuterText("5600");
+        view.setBottomOuterText("7hrs");
+        TestViews.layOut(view, SIZE);
+        return view;
+    }
+
+    private static long allocatedBytes() {
+        return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Swallows every draw call, so only allocations of the view itself are measured.
+     */
+    private static class NoOpCanvas extends Canvas {
+        @Override
+        public void drawLine(float startX, float startY, float stopX, float stopY, Paint paint) {
+        }
+
+        @Override
+        public void drawArc(RectF oval, float startAngle, float sweepAngle, boolean useCenter, Paint paint) {
+        }
+
+        @Override
+        public void drawCircle(float cx, float cy, float radius, Paint paint) {
+        }
+
+        @Override
+        public void drawPath(Path path, Paint paint) {
+        }
+
+        @Override
+        public void drawTextOnPath(String text, Path path, float hOffset, float vOffset, Paint paint) {
+        }
+
+        @Override
+        public void drawPicture(Picture picture) {
+        }
+
+        @Override
+        public void drawBitmap(Bitmap bitmap, float left, float top, Paint paint) {
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2019 Blake Zheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blakezheng.widget.cordiformview;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * {@link CordiformView#bind(CordiformState)} must cost at most one invalidate per rebind.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class CordiformViewBindTest {
+    private static final int SIZE = 600;
+
+    private TestViews.CountingView view;
+    private CordiformState state;
+
+    @Before
+    public void setUp() {
+        view = new TestViews.CountingView();
+        TestViews.layOut(view, SIZE);
+        state = view.getState(new CordiformState());
+        view.resetInvalidates();
+    }
+
+    @Test
+    public void bindingSameStateDoesNothing() {
+        view.bind(new CordiformState(state));
+
+        assertEquals(0, view.invalidates);
+    }
+
+    @Test
+    public void bindingNewStateInvalidatesOnce() {
+        state.setProgress(30, 60, 90)
+                .setColors(0xff000001, 0xff000002, 0xff000003)
+                .setInnerTexts("HeartRate", "Steps", "Sleep")
+                .setOuterTexts("68bpm", "5600", "7hrs")
+                .setStrokeWidth(40)
+                .setShadow(8, 2, 2, 0xff000004);
+        view.bind(state);
+
+        assertEquals(1, view.invalidates);
+        assertEquals(state, view.getState(new CordiformState()));
+    }
+
+    @Test
+    public void bindingProgressOnlyInvalidatesOnce() {
+        view.bind(state.setProgress(10, 0, 0));
+
+        assertEquals(1, view.invalidates);
+    }
+}
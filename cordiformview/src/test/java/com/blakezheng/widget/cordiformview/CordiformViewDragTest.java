@@ -0,0 +1,82 @@
+/*
+ * Copyright 2019 Blake Zheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blakezheng.widget.cordiformview;
+
+import android.os.SystemClock;
+import android.view.MotionEvent;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Touches along the heart set the progress of the segment they started on.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class CordiformViewDragTest {
+    private static final int SIZE = 600;
+
+    private CordiformView view;
+    private final float[] point = new float[2];
+
+    @Before
+    public void setUp() {
+        view = new CordiformView(RuntimeEnvironment.application);
+        view.setProgressDraggable(true);
+        TestViews.layOut(view, SIZE);
+    }
+
+    @Test
+    public void tapSetsProgressOfTheTouchedPart() {
+        assertTrue(touch(MotionEvent.ACTION_DOWN, CordiformSegments.LEFT_PART_END / 4));
+        touch(MotionEvent.ACTION_UP, CordiformSegments.LEFT_PART_END / 4);
+
+        assertEquals(25f, view.getPreciseLeftProgress(), 2f);
+        assertEquals(0f, view.getPreciseRightProgress(), 0f);
+    }
+
+    @Test
+    public void dragSticksToItsSegment() {
+        float rightMiddle = (CordiformSegments.LEFT_PART_END + CordiformSegments.RIGHT_PART_END) / 2;
+        touch(MotionEvent.ACTION_DOWN, CordiformSegments.LEFT_PART_END / 2);
+        touch(MotionEvent.ACTION_MOVE, rightMiddle);
+        touch(MotionEvent.ACTION_UP, rightMiddle);
+
+        assertEquals(100f, view.getPreciseLeftProgress(), 0f);
+        assertEquals(0f, view.getPreciseRightProgress(), 0f);
+    }
+
+    @Test
+    public void touchOffTheStrokeIsIgnored() {
+        MotionEvent event = MotionEvent.obtain(0, SystemClock.uptimeMillis(), MotionEvent.ACTION_DOWN, 0, 0, 0);
+        assertFalse(view.onTouchEvent(event));
+        event.recycle();
+    }
+
+    private boolean touch(int action, float fraction) {
+        HeartTouchMap.outlinePoint(view.getGeometry().metrics, fraction, point);
+        MotionEvent event = MotionEvent.obtain(0, SystemClock.uptimeMillis(), action, point[0], point[1], 0);
+        boolean handled = view.onTouchEvent(event);
+        event.recycle();
+        return handled;
+    }
+}
@@ -0,0 +1,407 @@
+/*
+ * Copyright 2019 Blake Zheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blakezheng.widget.cordiformview;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.PathMeasure;
+import android.graphics.Picture;
+import android.graphics.Rect;
+import android.graphics.RectF;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.shadow.api.Shadow;
+import org.robolectric.shadows.ShadowLooper;
+import org.robolectric.shadows.ShadowPaint;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs {@link CordiformView#onDraw(Canvas)} against a counting canvas over a matrix of sizes,
+ * progresses and texts and fails when a frame needs more draw calls, shadow layers or pixels than budgeted.
+ * <p>
+ * The pixel area is what the draw calls cover, overlapping calls count twice, and is compared to the area
+ * of the heart outline stroked once. Text is drawn as glyph paths, their bounds are counted.
+ * <p>
+ * Partial redraws are checked on what the view computes: the damage rect a progress change invalidates,
+ * the parts a frame clipped to it skips and the pixels it still covers, compared to the part stroked once.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class CordiformViewDrawBudgetTest {
+    private static final int[] SIZES = {120, 360, 1080};
+
+    private static final float[][] PROGRESSES = {
+            {0, 0, 0},
+            {50, 50, 50},
+            {10, 60, 90},
+            {100, 100, 100},
+    };
+    //calls drawn by the progress and remaining backgrounds of all three parts, per row of PROGRESSES
+    private static final int[] PROGRESS_CALL_BUDGETS = {3, 6, 6, 3};
+    //area of all strokes but the shadow in multiples of the stroked outline, only round caps may overlap
+    private static final float PART_AREA_BUDGET = 1.25f;
+    //the shadow is one blit of its bounds
+    private static final float SHADOW_AREA_BUDGET = 3.9f;
+
+    //the baked shadow
+    private static final int STATIC_CALL_BUDGET = 1;
+    //shadow layers are blurred in every frame
+    private static final int SHADOW_LAYER_BUDGET = 0;
+
+    private static final int TEXTS_NONE = 0;
+    private static final int TEXTS_INNER = 1;
+    private static final int TEXTS_ALL = 2;
+
+    private static final int SIZE = 360;
+
+    @Test
+    public void framesStayWithinBudget() {
+        for(int size : SIZES){
+            for(int p = 0; p < PROGRESSES.length; p++){
+                for(int texts = TEXTS_NONE; texts <= TEXTS_ALL; texts++){
+                    assertWithinBudget(size, p, texts);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void segmentCallsGrowLinearly() {
+        for(int count = 4; count <= CordiformSegments.MAX_COUNT; count += 4){
+            CordiformView view = createView(SIZE, TEXTS_NONE);
+            view.setSegments(CordiformSegments.even(count));
+            float[] progress = new float[count];
+            for(int i = 0; i < count; i++){
+                progress[i] = 100f * i / count;
+            }
+            view.setSegmentProgress(progress);
+            view.onDraw(new CountingCanvas(new Rect()));
+            ShadowLooper.idleMainLooper();
+
+            CountingCanvas canvas = new CountingCanvas(new Rect(0, 0, SIZE, SIZE));
+            view.onDraw(canvas);
+
+            //the first segment has no progress, every other one a progress and a remaining background
+            assertTrue(count + " segments: " + canvas, canvas.calls() <= STATIC_CALL_BUDGET + 2 * count - 1);
+        }
+    }
+
+    @Test
+    public void progressChangesDamageOnlyTheirParts() {
+        TestViews.CountingView view = new TestViews.CountingView();
+        TestViews.layOut(view, SIZE);
+        view.onDraw(new CountingCanvas(new Rect()));
+        CordiformGeometry g = view.getGeometry();
+        view.resetInvalidates();
+
+        view.setLeftProgress(30f);
+        assertEquals(g.leftDamageRect, view.takeDamage());
+        view.setRightProgress(30f);
+        assertEquals(g.rightDamageRect, view.takeDamage());
+        view.setBottomProgress(30f);
+        assertEquals(g.bottomDamageRect, view.takeDamage());
+
+        view.setProgress(40f, 40f, 30f);
+        Rect leftAndRight = new Rect(g.leftDamageRect);
+        leftAndRight.union(g.rightDamageRect);
+        assertEquals(leftAndRight, view.takeDamage());
+        assertEquals(0, view.fullInvalidates);
+    }
+
+    @Test
+    public void framesClippedToOnePartSkipTheOthers() {
+        CordiformView view = createView(SIZE, TEXTS_INNER);
+        view.setProgress(50f, 50f, 50f);
+        view.onDraw(new CountingCanvas(new Rect()));
+        ShadowLooper.idleMainLooper();
+        CordiformGeometry g = view.getGeometry();
+
+        //a pixel at the outer edge of each lobe only lies in the damage rect of that lobe
+        HeartMetrics m = g.metrics;
+        CountingCanvas left = new CountingCanvas(edgePixel(g.leftDamageRect, g.leftDamageRect.left));
+        view.onDraw(left);
+        assertOnlyArcsOf(g.leftArcRect, left);
+        assertPartArea(m.arcPartLength * m.strokeWidth, left);
+
+        CountingCanvas right = new CountingCanvas(edgePixel(g.rightDamageRect, g.rightDamageRect.right - 1));
+        view.onDraw(right);
+        assertOnlyArcsOf(g.rightArcRect, right);
+        assertPartArea(m.arcPartLength * m.strokeWidth, right);
+
+        //the bottom tip
+        Rect bottom = g.bottomDamageRect;
+        CountingCanvas tip = new CountingCanvas(new Rect(bottom.centerX(), bottom.bottom - 1,
+                bottom.centerX() + 1, bottom.bottom));
+        view.onDraw(tip);
+        assertEquals(tip.toString(), 0, tip.arcs);
+        //background and progress of the bottom part
+        assertEquals(tip.toString(), 2, tip.strokedPaths);
+        assertEquals(tip.toString(), 1, tip.filledPaths);
+        assertPartArea(m.bottomPartLength * m.strokeWidth, tip);
+    }
+
+    /**
+     * A frame clipped to one part must not paint more than that part, the whole heart is several times more.
+     */
+    private static void assertPartArea(double partArea, CountingCanvas canvas) {
+        double strokes = canvas.strokeArea();
+        assertTrue(canvas + ", " + (float) (strokes / partArea) + " parts", strokes <= PART_AREA_BUDGET * partArea);
+    }
+
+    private static Rect edgePixel(Rect damageRect, int x) {
+        return new Rect(x, damageRect.centerY(), x + 1, damageRect.centerY() + 1);
+    }
+
+    private static void assertOnlyArcsOf(RectF arcRect, CountingCanvas canvas) {
+        //background and progress of the lobe
+        assertEquals(canvas.toString(), 2, canvas.arcs);
+        assertEquals(canvas.toString(), 1, canvas.arcRects.size());
+        assertEquals(arcRect, canvas.arcRects.get(0));
+        assertEquals(canvas.toString(), 0, canvas.strokedPaths);
+        //only the inner text of the lobe
+        assertEquals(canvas.toString(), 1, canvas.filledPaths);
+    }
+
+    private static void assertWithinBudget(int size, int progress, int texts) {
+        CordiformView view = createView(size, texts);
+        float[] values = PROGRESSES[progress];
+        view.setProgress(values[0], values[1], values[2]);
+        //the first frame starts baking the shadow, the next one blits it
+        view.onDraw(new CountingCanvas(new Rect()));
+        ShadowLooper.idleMainLooper();
+
+        CountingCanvas canvas = new CountingCanvas(new Rect(0, 0, size, size));
+        view.onDraw(canvas);
+
+        String scenario = "size " + size + ", progress " + values[0] + "/" + values[1] + "/" + values[2]
+                + ", texts " + texts + ": " + canvas;
+        int textCalls = texts == TEXTS_NONE ? 0 : texts == TEXTS_INNER ? 3 : 6;
+        assertTrue(scenario, canvas.calls() <= STATIC_CALL_BUDGET + PROGRESS_CALL_BUDGETS[progress] + textCalls);
+        assertTrue(scenario, canvas.shadowLayers <= SHADOW_LAYER_BUDGET);
+        assertTrue(scenario, canvas.textOnPath == 0);
+
+        double outline = outlineArea(view.getGeometry().metrics);
+        double strokes = canvas.strokeArea();
+        assertTrue(scenario + ", " + (float) (strokes / outline) + " outlines", strokes <= PART_AREA_BUDGET * outline);
+        assertTrue(scenario, canvas.shadowArea <= SHADOW_AREA_BUDGET * outline);
+        //glyphs must stay on the heart, not fill it
+        assertTrue(scenario, canvas.textArea <= (double) size * size / 2);
+    }
+
+    /**
+     * The heart outline stroked once with the actual stroke width.
+     */
+    private static double outlineArea(HeartMetrics m) {
+        return (2 * m.arcPartLength + m.bottomPartLength) * m.strokeWidth;
+    }
+
+    private static CordiformView createView(int size, int texts) {
+        CordiformView view = new CordiformView(RuntimeEnvironment.application);
+        view.setShadowRadius(size / 60);
+        view.setShadowDy(size / 120);
+        if(texts >= TEXTS_INNER){
+            view.setLeftInnerText("HeartRate");
+            view.setRightInnerText("Steps");
+            view.setBottomInnerText("Sleep");
+        }
+        if(texts >= TEXTS_ALL){
+            view.setLeftOuterText("68bpm");
+            view.setRightOuterText("5600");
+            view.setBottomOuterText("7hrs");
+        }
+        view.setStaticLayerEnabled(false);
+        //bake the shadow on the calling thread
+        view.setShadowExecutor(new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                command.run();
+            }
+        });
+        TestViews.layOut(view, size);
+        return view;
+    }
+
+    /**
+     * Counts draw calls by kind and estimates the pixels each of them covers, nothing is rasterized.
+     */
+    private static class CountingCanvas extends Canvas {
+        private final Rect clip;
+        private final PathMeasure pathMeasure = new PathMeasure();
+        private final RectF bounds = new RectF();
+
+        int arcs;
+        //distinct ovals of the drawn arcs
+        final List<RectF> arcRects = new ArrayList<>();
+        int lines;
+        //outline pieces are stroked, text is drawn as filled glyph paths
+        int strokedPaths;
+        int filledPaths;
+        int textOnPath;
+        int circles;
+        int others;
+        int shadowLayers;
+        double area;
+        double textArea;
+        double shadowArea;
+
+        CountingCanvas(Rect clip) {
+            this.clip = clip;
+        }
+
+        int calls() {
+            return arcs + lines + strokedPaths + filledPaths + textOnPath + circles + others;
+        }
+
+        double strokeArea() {
+            return area - textArea - shadowArea;
+        }
+
+        @Override
+        public boolean getClipBounds(Rect bounds) {
+            bounds.set(clip);
+            return !clip.isEmpty();
+        }
+
+        @Override
+        public void drawArc(RectF oval, float startAngle, float sweepAngle, boolean useCenter, Paint paint) {
+            arcs++;
+            if(!arcRects.contains(oval)){
+                arcRects.add(new RectF(oval));
+            }
+            double radius = (oval.width() + oval.height()) / 4;
+            double angle = Math.toRadians(Math.abs(sweepAngle));
+            if(useCenter || paint.getStyle() != Paint.Style.STROKE){
+                add(angle / 2 * radius * radius, paint);
+            }else{
+                addStroke(angle * radius, paint);
+            }
+        }
+
+        @Override
+        public void drawLine(float startX, float startY, float stopX, float stopY, Paint paint) {
+            lines++;
+            addStroke(Math.hypot(stopX - startX, stopY - startY), paint);
+        }
+
+        @Override
+        public void drawCircle(float cx, float cy, float radius, Paint paint) {
+            circles++;
+            if(paint.getStyle() == Paint.Style.STROKE){
+                addStroke(2 * Math.PI * radius, paint);
+            }else{
+                add(Math.PI * radius * radius, paint);
+            }
+        }
+
+        @Override
+        public void drawPath(Path path, Paint paint) {
+            if(paint.getStyle() == Paint.Style.STROKE){
+                strokedPaths++;
+                double length = 0;
+                pathMeasure.setPath(path, false);
+                do {
+                    length += pathMeasure.getLength();
+                } while (pathMeasure.nextContour());
+                if(length == 0 && !path.isEmpty()){
+                    //the legacy test graphics don't measure paths, the outline is about as long as its bounds
+                    path.computeBounds(bounds, true);
+                    length = 2 * (bounds.width() + bounds.height());
+                }
+                addStroke(length, paint);
+            }else{
+                filledPaths++;
+                path.computeBounds(bounds, true);
+                double pathArea = bounds.width() * bounds.height();
+                textArea += pathArea;
+                add(pathArea, paint);
+            }
+        }
+
+        @Override
+        public void drawTextOnPath(String text, Path path, float hOffset, float vOffset, Paint paint) {
+            textOnPath++;
+            double textOnPathArea = paint.measureText(text) * paint.getTextSize();
+            textArea += textOnPathArea;
+            add(textOnPathArea, paint);
+        }
+
+        @Override
+        public void drawBitmap(Bitmap bitmap, float left, float top, Paint paint) {
+            //only the baked shadow is drawn as bitmap
+            others++;
+            area += bitmap.getWidth() * bitmap.getHeight();
+            shadowArea += bitmap.getWidth() * bitmap.getHeight();
+        }
+
+        @Override
+        public void drawPicture(Picture picture) {
+            others++;
+            area += picture.getWidth() * picture.getHeight();
+        }
+
+        @Override
+        public void drawRect(RectF rect, Paint paint) {
+            others++;
+            add(rect.width() * rect.height(), paint);
+        }
+
+        @Override
+        public void drawText(String text, float x, float y, Paint paint) {
+            others++;
+            double drawTextArea = paint.measureText(text) * paint.getTextSize();
+            textArea += drawTextArea;
+            add(drawTextArea, paint);
+        }
+
+        private void addStroke(double length, Paint paint) {
+            //a shadow layer blurs the stroke on both sides
+            double width = paint.getStrokeWidth() + 2 * Shadow.<ShadowPaint>extract(paint).getShadowRadius();
+            double strokeArea = length * width;
+            if(paint.getStrokeCap() == Paint.Cap.ROUND){
+                strokeArea += Math.PI * width * width / 4;
+            }else if(paint.getStrokeCap() == Paint.Cap.SQUARE){
+                strokeArea += width * width;
+            }
+            add(strokeArea, paint);
+        }
+
+        private void add(double pixels, Paint paint) {
+            area += pixels;
+            if(Shadow.<ShadowPaint>extract(paint).getShadowRadius() > 0){
+                shadowLayers++;
+                shadowArea += pixels;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "arcs " + arcs + " on " + arcRects.size() + " ovals, lines " + lines
+                    + ", paths " + strokedPaths + " stroked " + filledPaths + " filled, textOnPath " + textOnPath
+                    + ", circles " + circles + ", others " + others + ", shadow layers " + shadowLayers
+                    + ", area " + (long) area + " (text " + (long) textArea + ", shadow " + (long) shadowArea + ")";
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2019 Blake Zheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blakezheng.widget.cordiformview;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Geometry of {@link CordiformView} is recomputed lazily and only for what it depends on.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class CordiformViewGeometryTest {
+    private static final int SIZE = 600;
+
+    private CordiformView view;
+
+    @Before
+    public void setUp() {
+        view = new CordiformView(RuntimeEnvironment.application);
+        TestViews.layOut(view, SIZE);
+    }
+
+    @Test
+    public void repeatedSettersApplyTheLastValue() {
+        for(int strokeWidth = 10; strokeWidth <= 40; strokeWidth++){
+            view.setStrokeWidth(strokeWidth);
+        }
+
+        assertEquals(40, view.getGeometry().metrics.strokeWidth);
+        assertEquals(40, view.getActualStrokeWidth());
+    }
+
+    @Test
+    public void drawOnlyChangesKeepTheGeometry() {
+        CordiformGeometry geometry = view.getGeometry();
+        view.setInnerTextSize(20);
+        view.setLeftInnerText("HeartRate");
+        view.setProgress(30f, 60f, 90f);
+
+        assertSame(geometry, view.getGeometry());
+    }
+
+    @Test
+    public void outerTextSizeChangesTheGeometry() {
+        CordiformGeometry geometry = view.getGeometry();
+        view.setOuterTextSize(40);
+
+        assertNotSame(geometry, view.getGeometry());
+        assertEquals(40f, view.getGeometry().metrics.key.outerTextSize, 0f);
+    }
+
+    @Test
+    public void textPathsAreBuiltOnceForAnOffset() {
+        CordiformGeometry geometry = view.getGeometry();
+
+        assertSame(geometry.getInnerTextPaths(), geometry.getInnerTextPaths());
+        assertSame(geometry.getOuterTextPaths(4), geometry.getOuterTextPaths(4));
+        assertEquals(8f, geometry.getOuterTextPaths(8).offset, 0f);
+    }
+
+    @Test
+    public void onlyOuterTextsMoveTheOuterTextPaths() {
+        CordiformPainter painter = new CordiformPainter(0, 0, 0, 0, 0);
+        painter.setOuterTextSize(30);
+        painter.setInnerTexts(null, null, "Sleep");
+        assertEquals(0f, painter.getOuterTextOffsetWhileDrawing(5), 0f);
+
+        painter.setOuterTexts(null, null, "7hrs");
+        assertEquals(30 * HeartMetrics.TEXT_HEIGHT_SCALE + 5, painter.getOuterTextOffsetWhileDrawing(5), 0f);
+    }
+}
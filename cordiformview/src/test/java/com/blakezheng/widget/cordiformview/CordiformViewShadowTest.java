@@ -0,0 +1,125 @@
+/*
+ * Copyright 2019 Blake Zheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blakezheng.widget.cordiformview;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Picture;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * The baked shadow recorded into the static layer of {@link CordiformView} follows its shadow attributes.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class CordiformViewShadowTest {
+    private static final int SIZE = 600;
+
+    private CordiformView view;
+    private RecordingPicture staticLayer;
+    private int bakes;
+
+    @Before
+    public void setUp() {
+        view = new CordiformView(RuntimeEnvironment.application);
+        view.setShadowRadius(10);
+        view.setShadowDy(5);
+        //bake the shadow on the calling thread
+        view.setShadowExecutor(new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                bakes++;
+                command.run();
+            }
+        });
+        staticLayer = new RecordingPicture();
+        view.setStaticLayer(staticLayer);
+        TestViews.layOut(view, SIZE);
+    }
+
+    @Test
+    public void turningTheShadowOffRemovesItFromTheNextFrame() {
+        drawFrame();
+        assertEquals(1, staticLayer.bitmaps);
+
+        view.setShadowRadius(0);
+        drawFrame();
+
+        assertEquals(0, staticLayer.bitmaps);
+    }
+
+    @Test
+    public void turningTheShadowBackOnBakesItAgain() {
+        drawFrame();
+        view.setShadowRadius(0);
+        drawFrame();
+
+        view.setShadowRadius(10);
+        drawFrame();
+
+        assertEquals(1, staticLayer.bitmaps);
+    }
+
+    @Test
+    public void detachingKeepsTheBakedShadow() {
+        drawFrame();
+        view.onDetachedFromWindow();
+
+        view.onDraw(new Canvas());
+
+        assertEquals(1, bakes);
+        assertEquals(1, staticLayer.bitmaps);
+    }
+
+    private void drawFrame() {
+        view.onDraw(new Canvas());
+        //a finished bake is posted back to the main thread and redraws the view
+        ShadowLooper.idleMainLooper();
+        view.onDraw(new Canvas());
+    }
+
+    /**
+     * Counts the bitmaps of the last recording, only the baked shadow is drawn as bitmap.
+     */
+    private static class RecordingPicture extends Picture {
+        int bitmaps;
+
+        @Override
+        public Canvas beginRecording(int width, int height) {
+            bitmaps = 0;
+            return new Canvas() {
+                @Override
+                public void drawBitmap(Bitmap bitmap, float left, float top, Paint paint) {
+                    bitmaps++;
+                }
+            };
+        }
+
+        @Override
+        public void endRecording() {
+        }
+    }
+}
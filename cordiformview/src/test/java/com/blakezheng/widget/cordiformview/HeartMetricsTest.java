@@ -0,0 +1,109 @@
+/*
+ * Copyright 2019 Blake Zheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blakezheng.widget.cordiformview;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs on the plain JVM, {@link HeartMetrics} must not touch android classes.
+ */
+public class HeartMetricsTest {
+
+    private static HeartMetrics.Key key(int width, int height, int strokeWidth){
+        return new HeartMetrics.Key().set(width, height, 0, 0, 0, 0, strokeWidth, 0, 0, 0, 0, 0);
+    }
+
+    @Test
+    public void heartIsSymmetric() {
+        HeartMetrics m = new HeartMetrics(key(600, 600, 20));
+
+        int center = m.xOffset + m.drawableWidth / 2;
+        assertEquals(center - m.leftLineEndX, m.rightLineStartX - center);
+        assertEquals(m.leftLineEndY, m.rightLineStartY);
+        assertEquals(center, m.bottomArcCx);
+        assertEquals(m.rightLineEndX - center, center - m.leftLineStartX);
+    }
+
+    @Test
+    public void outlineDistanceMeetsThePartEnds() {
+        HeartMetrics m = new HeartMetrics(key(600, 600, 20));
+
+        assertEquals(0, m.outlineDistance(0), 0.01f);
+        assertEquals(m.arcPartLength, m.outlineDistance(CordiformSegments.LEFT_PART_END), 0.01f);
+        assertEquals(2 * m.arcPartLength, m.outlineDistance(CordiformSegments.RIGHT_PART_END), 0.01f);
+        assertEquals(2 * m.arcPartLength + m.bottomPartLength, m.outlineDistance(1), 0.01f);
+        //halfway through the bottom is halfway along it
+        float bottomMiddle = (CordiformSegments.RIGHT_PART_END + 1) / 2;
+        assertEquals(2 * m.arcPartLength + m.bottomPartLength / 2, m.outlineDistance(bottomMiddle), 0.01f);
+    }
+
+    @Test
+    public void drawableKeepsRatio() {
+        HeartMetrics wide = new HeartMetrics(key(1000, 300, 20));
+        HeartMetrics tall = new HeartMetrics(key(300, 1000, 20));
+
+        assertEquals(HeartMetrics.DRAWABLE_RATIO, (float) wide.drawableWidth / wide.drawableHeight, 0.01f);
+        assertEquals(HeartMetrics.DRAWABLE_RATIO, (float) tall.drawableWidth / tall.drawableHeight, 0.01f);
+    }
+
+    @Test
+    public void strokeWidthIsClamped() {
+        HeartMetrics thick = new HeartMetrics(key(600, 600, 150));
+        HeartMetrics unset = new HeartMetrics(key(600, 600, 0));
+
+        assertEquals(thick.sideLength / 3, thick.strokeWidth);
+        assertEquals(unset.sideLength / 6, unset.strokeWidth);
+    }
+
+    @Test
+    public void partLengthsMatchRatios() {
+        for(int size : new int[]{120, 600, 2000}){
+            HeartMetrics m = new HeartMetrics(key(size, size, 0));
+
+            assertEquals(HeartMetrics.ARC_PART_RATIO, m.arcPartLength / m.sideLength, 0.001f);
+            //the corners are rounded to whole pixels
+            assertEquals(HeartMetrics.BOTTOM_PART_RATIO, m.bottomPartLength / m.sideLength, 0.03f);
+        }
+    }
+
+    @Test
+    public void tooSmallIsEmpty() {
+        assertTrue(new HeartMetrics(key(10, 10, 20)).isEmpty());
+        assertFalse(new HeartMetrics(key(600, 600, 20)).isEmpty());
+    }
+
+    @Test
+    public void keyCopyIsEqual() {
+        HeartMetrics.Key key = key(600, 600, 20);
+        HeartMetrics.Key copy = key.copy();
+
+        assertEquals(key, copy);
+        assertEquals(key.hashCode(), copy.hashCode());
+        key.set(601, 600, 0, 0, 0, 0, 20, 0, 0, 0, 0, 0);
+        assertNotEquals(key, copy);
+    }
+
+    @Test
+    public void darkColorKeepsAlpha() {
+        assertEquals(0x804c4c4c, HeartColors.parseToDarkColor(0x80ffffff));
+        assertEquals(0xff000000, HeartColors.parseToDarkColor(0xff000000));
+    }
+}
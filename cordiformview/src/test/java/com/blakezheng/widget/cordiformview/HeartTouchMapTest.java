@@ -0,0 +1,77 @@
+/*
+ * Copyright 2019 Blake Zheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blakezheng.widget.cordiformview;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs on the plain JVM like {@link HeartMetricsTest}.
+ */
+public class HeartTouchMapTest {
+
+    private static HeartMetrics metrics(int size, int strokeWidth){
+        return new HeartMetrics(new HeartMetrics.Key().set(size, size, 0, 0, 0, 0, strokeWidth, 0, 0, 0, 0, 0));
+    }
+
+    @Test
+    public void pointsOnTheOutlineMapToTheirFraction() {
+        for(int size : new int[]{120, 600, 2000}){
+            HeartMetrics m = metrics(size, 0);
+            HeartTouchMap map = new HeartTouchMap(m);
+            float[] point = new float[2];
+            for(int i = 0; i <= 100; i++){
+                float fraction = i / 100f;
+                HeartTouchMap.outlinePoint(m, fraction, point);
+
+                float found = map.fractionAt(point[0], point[1]);
+                assertTrue(size + ": " + fraction, found != HeartTouchMap.NONE);
+                //the outline is closed, 0 and 1 are the same point
+                float error = Math.abs(found - fraction);
+                assertEquals(size + ": " + fraction, 0f, Math.min(error, 1 - error), 0.02f);
+            }
+        }
+    }
+
+    @Test
+    public void pointsOffTheStrokeMapToNone() {
+        HeartMetrics m = metrics(600, 30);
+        HeartTouchMap map = new HeartTouchMap(m);
+
+        assertEquals(HeartTouchMap.NONE, map.fractionAt(0, 0), 0f);
+        assertEquals(HeartTouchMap.NONE, map.fractionAt(599, 0), 0f);
+        assertEquals(HeartTouchMap.NONE, map.fractionAt(-1, 300), 0f);
+        assertEquals(HeartTouchMap.NONE, map.fractionAt(300, 600), 0f);
+    }
+
+    @Test
+    public void outlinePointsMeetAtTheParts() {
+        HeartMetrics m = metrics(600, 30);
+        float[] point = new float[2];
+
+        HeartTouchMap.outlinePoint(m, 0, point);
+        assertEquals(m.leftLineEndX, point[0], 1f);
+        assertEquals(m.leftLineEndY, point[1], 1f);
+        HeartTouchMap.outlinePoint(m, CordiformSegments.RIGHT_PART_END, point);
+        assertEquals(m.rightLineStartX, point[0], 1f);
+        assertEquals(m.rightLineStartY, point[1], 1f);
+        HeartTouchMap.outlinePoint(m, 1, point);
+        assertEquals(m.leftLineEndX, point[0], 1f);
+        assertEquals(m.leftLineEndY, point[1], 1f);
+    }
+}
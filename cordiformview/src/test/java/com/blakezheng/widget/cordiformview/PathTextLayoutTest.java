@@ -0,0 +1,265 @@
+/*
+ * Copyright 2019 Blake Zheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blakezheng.widget.cordiformview;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.PathMeasure;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The test graphics don't shape text, {@link ShapingPaint} stands in with the advances a shaper gives.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class PathTextLayoutTest {
+
+    @Test
+    public void clustersAreShapedTogether() {
+        //a ligature, a combining mark and a surrogate pair, their later chars have no advance
+        ShapingPaint paint = new ShapingPaint(new float[]{30, 0, 0, 12, 0, 20, 0});
+        new PathTextLayout().layout("ffie\u0301\ud835\udc00", new Path(), 0, 0, paint);
+
+        assertEquals("[ffi, e\u0301, \ud835\udc00]", paint.shaped.toString());
+    }
+
+    @Test
+    public void kernedPairsKeepTheirRunAdvances() {
+        //a kerned A is narrower in front of V than on its own
+        ShapingPaint paint = new ShapingPaint(new float[]{18, 20, 18, 20});
+        new PathTextLayout().layout("AVAV", new Path(), 0, 0, paint);
+
+        assertEquals("[A, V, A, V]", paint.shaped.toString());
+        assertEquals("[-9.0, -10.0, -9.0, -10.0]", paint.origins.toString());
+    }
+
+    @Test
+    public void rightToLeftTextIsShapedAsOneRun() {
+        //Hebrew, and Latin with an Arabic word
+        assertShapedOnPath("\u05e9\u05dc\u05d5\u05dd");
+        assertShapedOnPath("Hi \u0633\u0644\u0627\u0645");
+    }
+
+    @Test
+    public void joiningScriptsAreShapedAsOneRun() {
+        //Devanagari with a conjunct
+        assertShapedOnPath("\u0928\u092e\u0938\u094d\u0924\u0947");
+        //an emoji sequence held together by a zero width joiner
+        assertShapedOnPath("\ud83d\udc69\u200d\ud83d\udcbb");
+    }
+
+    @Test
+    public void leftToRightTextIsDrawnAsGlyphPaths() {
+        ShapingPaint paint = new ShapingPaint(new float[]{10, 10, 10});
+        PathTextLayout layout = new PathTextLayout();
+        layout.layout("abc", new Path(), 0, 0, paint);
+        RecordingCanvas canvas = new RecordingCanvas();
+        layout.draw(canvas, paint);
+
+        assertEquals(3, paint.shaped.size());
+        assertEquals(1, canvas.paths);
+        assertEquals(0, canvas.textsOnPath.size());
+    }
+
+    @Test
+    public void tooLongTextIsShrunk() {
+        MonospacePaint paint = new MonospacePaint(30);
+        PathTextLayout layout = fitting(100);
+        layout.layoutFitted("abcdefghij", new Path(), 0, 0, paint, 10);
+
+        assertEquals("abcdefghij", layout.getLaidOutText());
+        assertEquals(20f, layout.getLaidOutTextSize(), 0.01f);
+        //the paint keeps its size
+        assertEquals(30f, paint.getTextSize(), 0);
+    }
+
+    @Test
+    public void textIsShrunkNoFurtherThanMinTextSizeAndEllipsized() {
+        MonospacePaint paint = new MonospacePaint(30);
+        PathTextLayout layout = fitting(100);
+        layout.layoutFitted("abcdefghij", new Path(), 0, 0, paint, 25);
+
+        assertEquals(25f, layout.getLaidOutTextSize(), 0);
+        //7 chars and the ellipsis of 12.5 each
+        assertEquals("abcdefg\u2026", layout.getLaidOutText());
+        assertFalse(layout.isEmpty());
+    }
+
+    @Test
+    public void ellipsisWiderThanThePathLeavesNothing() {
+        MonospacePaint paint = new MonospacePaint(30);
+        PathTextLayout layout = fitting(20);
+        layout.layoutFitted("abcdefghij", new Path(), 10, 0, paint, 30);
+
+        assertEquals("", layout.getLaidOutText());
+        assertTrue(layout.isEmpty());
+        RecordingCanvas canvas = new RecordingCanvas();
+        layout.draw(canvas, paint);
+        assertEquals(0, canvas.paths);
+    }
+
+    @Test
+    public void ellipsizingKeepsSurrogatePairs() {
+        MonospacePaint paint = new MonospacePaint(20);
+        PathTextLayout layout = fitting(60);
+        //5 chars fit in front of the ellipsis, the fifth is the first half of the pair
+        layout.layoutFitted("abcd\ud83d\ude00xyz", new Path(), 0, 0, paint, 20);
+
+        assertEquals("abcd\u2026", layout.getLaidOutText());
+    }
+
+    @Test
+    public void unchangedTextIsNotLaidOutAgain() {
+        MonospacePaint paint = new MonospacePaint(30);
+        Path path = new Path();
+        PathTextLayout layout = fitting(100);
+        layout.layoutFitted("abcdefghij", path, 0, 0, paint, 10);
+        int shaped = paint.shaped;
+
+        layout.layoutFitted("abcdefghij", path, 0, 0, paint, 10);
+        assertEquals(shaped, paint.shaped);
+
+        layout.layoutFitted("abcdefghik", path, 0, 0, paint, 10);
+        assertEquals(2 * shaped, paint.shaped);
+        paint.setTextSize(32);
+        layout.layoutFitted("abcdefghik", path, 0, 0, paint, 10);
+        assertEquals(3 * shaped, paint.shaped);
+    }
+
+    /**
+     * @return a layout measuring every path as {@code length} long
+     */
+    private static PathTextLayout fitting(final float length) {
+        return new PathTextLayout(new PathMeasure() {
+            @Override
+            public float getLength() {
+                return length;
+            }
+        });
+    }
+
+    private static void assertShapedOnPath(String text) {
+        ShapingPaint paint = new ShapingPaint(new float[text.length()]);
+        Path path = new Path();
+        PathTextLayout layout = new PathTextLayout();
+        layout.layout(text, path, 0, 0, paint);
+        RecordingCanvas canvas = new RecordingCanvas();
+        layout.draw(canvas, paint);
+
+        assertEquals(text, 0, paint.shaped.size());
+        assertEquals(text, 0, canvas.paths);
+        assertEquals(Collections.singletonList(text), canvas.textsOnPath);
+        assertSame(path, canvas.path);
+    }
+
+    /**
+     * Records the texts drawn on paths and counts the paths drawn.
+     */
+    private static class RecordingCanvas extends Canvas {
+        final List<String> textsOnPath = new ArrayList<>();
+        Path path;
+        int paths;
+
+        @Override
+        public void drawTextOnPath(String text, Path path, float hOffset, float vOffset, Paint paint) {
+            textsOnPath.add(text);
+            this.path = path;
+        }
+
+        @Override
+        public void drawPath(Path path, Paint paint) {
+            paths++;
+        }
+    }
+
+    /**
+     * Every char advances half the text size, the test graphics measure a char as 1 whatever the size.
+     * Counts the clusters shaped.
+     */
+    private static class MonospacePaint extends Paint {
+        int shaped;
+
+        MonospacePaint(float textSize) {
+            setTextSize(textSize);
+        }
+
+        private float advance() {
+            return getTextSize() / 2;
+        }
+
+        @Override
+        public float measureText(String text) {
+            return text.length() * advance();
+        }
+
+        @Override
+        public int breakText(String text, boolean measureForwards, float maxWidth, float[] measuredWidth) {
+            return Math.min(text.length(), (int) (maxWidth / advance()));
+        }
+
+        @Override
+        public int getTextWidths(String text, int start, int end, float[] widths) {
+            Arrays.fill(widths, 0, end - start, advance());
+            return end - start;
+        }
+
+        @Override
+        public void getTextPath(String text, int start, int end, float x, float y, Path path) {
+            shaped++;
+            path.reset();
+        }
+    }
+
+    /**
+     * Hands out fixed advances for the whole text and records what is shaped on its own.
+     */
+    private static class ShapingPaint extends Paint {
+        private final float[] advances;
+        final List<String> shaped = new ArrayList<>();
+        //x of each cluster outline, centered on its point of the path
+        final List<Float> origins = new ArrayList<>();
+
+        ShapingPaint(float[] advances) {
+            this.advances = advances;
+        }
+
+        @Override
+        public int getTextWidths(String text, int start, int end, float[] widths) {
+            System.arraycopy(advances, start, widths, 0, end - start);
+            return end - start;
+        }
+
+        @Override
+        public void getTextPath(String text, int start, int end, float x, float y, Path path) {
+            shaped.add(text.substring(start, end));
+            origins.add(x);
+            path.reset();
+        }
+    }
+}
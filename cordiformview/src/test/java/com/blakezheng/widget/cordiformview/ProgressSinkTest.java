@@ -0,0 +1,92 @@
+/*
+ * Copyright 2019 Blake Zheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blakezheng.widget.cordiformview;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * {@link ProgressSink} conflates everything published between two frames into one update.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class ProgressSinkTest {
+    private static final int SIZE = 600;
+
+    private TestViews.CountingView view;
+    private ProgressSink sink;
+
+    @Before
+    public void setUp() {
+        view = new TestViews.CountingView();
+        TestViews.layOut(view, SIZE);
+        sink = view.getProgressSink();
+        view.setProgress(10f, 20f, 30f);
+        view.resetInvalidates();
+    }
+
+    @Test
+    public void onlyTheLatestValuesAreApplied() throws InterruptedException {
+        Thread producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for(int i = 0; i <= 500; i++){
+                    sink.publish(i / 10f, i / 5f, 200);
+                }
+            }
+        });
+        producer.start();
+        producer.join();
+        assertEquals(0, view.invalidates);
+
+        nextFrame();
+
+        assertEquals(50f, view.getAnimatedLeft(), 0f);
+        assertEquals(100f, view.getAnimatedRight(), 0f);
+        assertEquals(100f, view.getAnimatedBottom(), 0f);
+        assertEquals(1, view.invalidates);
+    }
+
+    @Test
+    public void singlePartsKeepTheOthers() {
+        sink.publishLeft(40.5f);
+        sink.publishBottom(70f);
+        nextFrame();
+
+        assertEquals(40.5f, view.getAnimatedLeft(), 0f);
+        assertEquals(20f, view.getAnimatedRight(), 0f);
+        assertEquals(70f, view.getAnimatedBottom(), 0f);
+    }
+
+    @Test
+    public void nothingPublishedNothingInvalidated() {
+        sink.publish(10f, 20f, 30f);
+        nextFrame();
+        nextFrame();
+
+        assertEquals(0, view.invalidates);
+    }
+
+    private static void nextFrame() {
+        ShadowLooper.idleMainLooper(20, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2019 Blake Zheng
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blakezheng.widget.cordiformview;
+
+import android.graphics.Rect;
+import android.view.View;
+
+import org.robolectric.RuntimeEnvironment;
+
+/**
+ * Views and layout shared by the view tests.
+ */
+final class TestViews {
+    private TestViews() {
+    }
+
+    /**
+     * Measures the view exactly {@code size} by {@code size} and lays it out at the origin.
+     */
+    static void layOut(View view, int size) {
+        view.measure(View.MeasureSpec.makeMeasureSpec(size, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(size, View.MeasureSpec.EXACTLY));
+        view.layout(0, 0, size, size);
+    }
+
+    /**
+     * Counts invalidates and records the rects partial ones damage, the test view is not hardware accelerated.
+     */
+    static class CountingView extends CordiformView {
+        private final Rect damage = new Rect();
+        private boolean dropInvalidates;
+        //full and partial
+        int invalidates;
+        int fullInvalidates;
+
+        CountingView() {
+            super(RuntimeEnvironment.application);
+        }
+
+        /**
+         * Count invalidates without passing them on, the framework's invalidation allocates inside the test runtime.
+         */
+        void setDropInvalidates(boolean dropInvalidates) {
+            this.dropInvalidates = dropInvalidates;
+        }
+
+        @Override
+        public void invalidate() {
+            invalidates++;
+            fullInvalidates++;
+            if(!dropInvalidates){
+                super.invalidate();
+            }
+        }
+
+        @Override
+        @SuppressWarnings("deprecation")
+        public void invalidate(Rect dirty) {
+            invalidates++;
+            damage.union(dirty);
+            if(!dropInvalidates){
+                super.invalidate(dirty);
+            }
+        }
+
+        void resetInvalidates() {
+            invalidates = fullInvalidates = 0;
+            damage.setEmpty();
+        }
+
+        Rect takeDamage() {
+            Rect taken = new Rect(damage);
+            damage.setEmpty();
+            return taken;
+        }
+    }
+}
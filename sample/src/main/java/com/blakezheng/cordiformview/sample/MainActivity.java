@@ -14,16 +14,26 @@ public class MainActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
 
-        SeekBar leftProgressSeekBar, rightProgressSeekBar, bottomProgressSeekBar;
+        final SeekBar leftProgressSeekBar, rightProgressSeekBar, bottomProgressSeekBar;
         cordiformView = findViewById(R.id.cordiform_view);
         leftProgressSeekBar = findViewById(R.id.left_progress_seek_bar);
         rightProgressSeekBar = findViewById(R.id.right_progress_seek_bar);
         bottomProgressSeekBar = findViewById(R.id.bottom_progress_seek_bar);
 
+        cordiformView.setOnProgressDragListener(new CordiformView.OnProgressDragListener() {
+            @Override
+            public void onProgressDragged(CordiformView view, int segment, float progress) {
+                SeekBar seekBar = segment == 0 ? leftProgressSeekBar : segment == 1 ? rightProgressSeekBar : bottomProgressSeekBar;
+                seekBar.setProgress((int) progress);
+            }
+        });
+
         leftProgressSeekBar.setOnSeekBarChangeListener(new SeekBar.OnSeekBarChangeListener() {
             @Override
             public void onProgressChanged(SeekBar seekBar, int progress, boolean fromUser) {
-                cordiformView.setLeftProgress(progress);
+                if(fromUser){
+                    cordiformView.setLeftProgress(progress);
+                }
             }
 
             @Override
@@ -40,7 +50,9 @@ public class MainActivity extends AppCompatActivity {
         rightProgressSeekBar.setOnSeekBarChangeListener(new SeekBar.OnSeekBarChangeListener() {
             @Override
             public void onProgressChanged(SeekBar seekBar, int progress, boolean fromUser) {
-                cordiformView.setRightProgress(progress);
+                if(fromUser){
+                    cordiformView.setRightProgress(progress);
+                }
             }
 
             @Override
@@ -57,7 +69,9 @@ public class MainActivity extends AppCompatActivity {
         bottomProgressSeekBar.setOnSeekBarChangeListener(new SeekBar.OnSeekBarChangeListener() {
             @Override
             public void onProgressChanged(SeekBar seekBar, int progress, boolean fromUser) {
-                cordiformView.setBottomProgress(progress);
+                if(fromUser){
+                    cordiformView.setBottomProgress(progress);
+                }
             }
 
             @Override